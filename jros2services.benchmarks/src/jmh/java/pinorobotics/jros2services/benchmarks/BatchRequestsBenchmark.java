@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jros2client.JRos2ClientConfiguration;
+import id.jros2client.impl.JRos2ClientImpl;
+import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jroscommon.RosName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
+import pinorobotics.jros2services.impl.JRos2ServiceClientImpl;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsResponseMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsServiceDefinition;
+
+/**
+ * Compares sending list of requests with {@link JRos2ServiceClientImpl#sendAllAsync(List)} with
+ * sending them one by one.
+ *
+ * <p>Requests are not sent to the network (see {@link BenchmarkObjectsFactory}) and there is no
+ * service on the other side so all requests are cancelled after they are sent.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchRequestsBenchmark {
+
+    @Param({"16", "256"})
+    private int batchSize;
+
+    private JRos2ClientImpl jros2Client;
+    private JRos2ServiceClientImpl<AddTwoIntsRequestMessage, AddTwoIntsResponseMessage> client;
+    private List<AddTwoIntsRequestMessage> requests;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jros2Client =
+                new JRos2ClientImpl(
+                        new JRos2ClientConfiguration.Builder().build(),
+                        new BenchmarkObjectsFactory());
+        client =
+                new JRos2ServiceClientImpl<>(
+                        jros2Client,
+                        new AddTwoIntsServiceDefinition(),
+                        new RosName("benchmark_add_two_ints"),
+                        new DdsNameMapper(),
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .maxPendingRequests(batchSize)
+                                .build());
+        client.start();
+        requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) requests.add(new AddTwoIntsRequestMessage(i, i));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        jros2Client.close();
+    }
+
+    @Benchmark
+    public List<CompletableFuture<AddTwoIntsResponseMessage>> sendRequestAsync_loop() {
+        var futures = new ArrayList<CompletableFuture<AddTwoIntsResponseMessage>>(batchSize);
+        for (int i = 0; i < batchSize; i++) futures.add(client.sendRequestAsync(requests.get(i)));
+        cancel(futures);
+        return futures;
+    }
+
+    @Benchmark
+    public List<CompletableFuture<AddTwoIntsResponseMessage>> sendAllAsync_list() {
+        var futures = client.sendAllAsync(requests);
+        cancel(futures);
+        return futures;
+    }
+
+    private void cancel(List<CompletableFuture<AddTwoIntsResponseMessage>> futures) {
+        // release pending requests table for the next invocation
+        for (int i = 0; i < futures.size(); i++) futures.get(i).cancel(false);
+    }
+}
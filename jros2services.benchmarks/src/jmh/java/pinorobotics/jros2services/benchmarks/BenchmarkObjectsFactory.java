@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jros2client.impl.ObjectsFactory;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import pinorobotics.rtpstalk.RtpsTalkClient;
+import pinorobotics.rtpstalk.RtpsTalkConfiguration;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.qos.PublisherQosPolicy;
+import pinorobotics.rtpstalk.qos.SubscriberQosPolicy;
+
+/**
+ * Creates RTPS clients which do not use the network.
+ *
+ * <p>Without matched readers RTPS writers stop consuming messages and publishers block. To measure
+ * only jros2services, all published messages are consumed and discarded right away.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class BenchmarkObjectsFactory extends ObjectsFactory {
+
+    @Override
+    public RtpsTalkClient createRtpsTalkClient(RtpsTalkConfiguration config) {
+        return new RtpsTalkClient(config) {
+            private int entityId = 1;
+
+            @Override
+            public synchronized int subscribe(
+                    String topic,
+                    String type,
+                    SubscriberQosPolicy subscriberQosPolicy,
+                    Subscriber<RtpsTalkDataMessage> subscriber) {
+                return entityId++;
+            }
+
+            @Override
+            public void publish(
+                    String topic,
+                    String type,
+                    PublisherQosPolicy publisherQosPolicy,
+                    Publisher<RtpsTalkDataMessage> publisher) {
+                publisher.subscribe(
+                        new Subscriber<>() {
+                            @Override
+                            public void onSubscribe(Subscription subscription) {
+                                subscription.request(Long.MAX_VALUE);
+                            }
+
+                            @Override
+                            public void onNext(RtpsTalkDataMessage item) {}
+
+                            @Override
+                            public void onError(Throwable throwable) {}
+
+                            @Override
+                            public void onComplete() {}
+                        });
+            }
+        };
+    }
+}
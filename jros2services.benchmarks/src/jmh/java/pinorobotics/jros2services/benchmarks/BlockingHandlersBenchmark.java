@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jroscommon.RosName;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.ExecutionMode;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jros2services.impl.HandlerExecutors;
+import pinorobotics.jros2services.impl.SharedResources;
+
+/**
+ * Measures time to execute burst of requests by the service handlers which block on I/O (emulated
+ * with sleep) in each of the {@link ExecutionMode}.
+ *
+ * <p>Virtual threads require Java 21, on older versions both modes use same thread pool.
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=BlockingHandlersBenchmark
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockingHandlersBenchmark {
+
+    private static final long HANDLER_BLOCKING_TIME_MILLIS = 10;
+
+    @Param({"THREAD_POOL", "VIRTUAL_THREADS"})
+    public ExecutionMode executionMode;
+
+    @Param({"100", "10000"})
+    public int burstSize;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor =
+                HandlerExecutors.newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .executionMode(executionMode)
+                                .build(),
+                        new RosName("benchmark"),
+                        SharedResources.NONE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void executeBurst() throws InterruptedException {
+        var latch = new CountDownLatch(burstSize);
+        for (int i = 0; i < burstSize; i++) {
+            executor.submit(
+                    () -> {
+                        try {
+                            Thread.sleep(HANDLER_BLOCKING_TIME_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            latch.countDown();
+                        }
+                    });
+        }
+        latch.await();
+    }
+}
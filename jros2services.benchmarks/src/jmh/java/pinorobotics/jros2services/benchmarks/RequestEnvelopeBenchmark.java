@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentityTemplate;
+import pinorobotics.rtpstalk.messages.Parameters;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.messages.UserParameterId;
+
+/**
+ * Measures cost of wrapping serialized request into RTPS message with its sample identity.
+ *
+ * <p>Run with GC profiler to see number of bytes allocated per request (gc.alloc.rate.norm):
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=RequestEnvelopeBenchmark -PjmhProfilers=gc
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestEnvelopeBenchmark {
+
+    private final byte[] guid = new byte[SampleIdentity.GUID_SIZE];
+    private final SampleIdentityTemplate identityTemplate = new SampleIdentityTemplate(guid);
+    private final byte[] data = new byte[16];
+    private long seqNum;
+
+    /** How request envelope was created before sample identity template was introduced */
+    @Benchmark
+    public RtpsTalkDataMessage newMessage_baseline() {
+        var buf = ByteBuffer.allocate(SampleIdentity.SIZE);
+        buf.put(guid);
+        var requestId = ++seqNum;
+        buf.putInt(Integer.reverseBytes((int) (requestId >> 31)));
+        buf.putInt(Integer.reverseBytes((int) requestId));
+        var params =
+                new Parameters(Map.of(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY, buf.array()));
+        return new RtpsTalkDataMessage(params, data);
+    }
+
+    @Benchmark
+    public RtpsTalkDataMessage newMessage_identityTemplate() {
+        return new RtpsTalkDataMessage(identityTemplate.newParameters(++seqNum), data);
+    }
+}
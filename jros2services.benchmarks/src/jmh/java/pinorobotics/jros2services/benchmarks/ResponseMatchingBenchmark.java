@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jros2client.JRos2ClientConfiguration;
+import id.jros2client.impl.JRos2ClientImpl;
+import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jroscommon.RosName;
+import id.xfunction.concurrent.flow.SimpleSubscriber;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pinorobotics.jros2services.JRos2ServiceClient;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
+import pinorobotics.jros2services.JRos2ServicesFactory;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.impl.ddsrpc.IdentityLayout;
+import pinorobotics.jros2services.tests.LoopbackObjectsFactory;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsResponseMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsServiceDefinition;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Measures time which client spends on each received response: dropping foreign responses, finding
+ * the pending request, reading the response and completing its future.
+ *
+ * <p>Before each invocation the batch of requests is sent and responses to them are prepared, so
+ * that only their delivery to the client subscriber is measured.
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=ResponseMatchingBenchmark -PjmhProfilers=gc
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseMatchingBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+    private static final String SERVICE_NAME = "benchmark_add_two_ints";
+
+    private final DdsRpcUtils utils = new DdsRpcUtils();
+    private final LinkedBlockingQueue<byte[]> requestIdentities = new LinkedBlockingQueue<>();
+    private final List<AddTwoIntsRequestMessage> requests = new ArrayList<>(BATCH_SIZE);
+    private final List<RtpsTalkDataMessage> responses = new ArrayList<>(BATCH_SIZE);
+    private LoopbackObjectsFactory objectsFactory;
+    private JRos2ClientImpl jros2Client;
+    private JRos2ServicesFactory servicesFactory;
+    private JRos2ServiceClient<AddTwoIntsRequestMessage, AddTwoIntsResponseMessage> client;
+    private String responsesTopic;
+    private byte[] responseData;
+    private List<CompletableFuture<AddTwoIntsResponseMessage>> futures;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        objectsFactory = new LoopbackObjectsFactory();
+        jros2Client =
+                new JRos2ClientImpl(new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+        servicesFactory = new JRos2ServicesFactory();
+        var serviceDefinition = new AddTwoIntsServiceDefinition();
+        client =
+                servicesFactory.createClient(
+                        jros2Client,
+                        serviceDefinition,
+                        SERVICE_NAME,
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .maxPendingRequests(BATCH_SIZE)
+                                .build());
+        var nameMapper = new DdsNameMapper();
+        var serviceName = new RosName(SERVICE_NAME);
+        responsesTopic =
+                nameMapper.asFullyQualifiedDdsTopicName(
+                        serviceName, serviceDefinition.getServiceResponseMessage());
+        // instead of the service, collect identities of the requests to reply to them later
+        jros2Client
+                .getRtpsTalkClient()
+                .subscribe(
+                        nameMapper.asFullyQualifiedDdsTopicName(
+                                serviceName, serviceDefinition.getServiceRequestMessage()),
+                        nameMapper.asFullyQualifiedDdsTypeName(
+                                serviceDefinition.getServiceRequestMessage()),
+                        DdsRpcUtils.DEFAULT_SUBSCRIBER_QOS,
+                        new SimpleSubscriber<RtpsTalkDataMessage>() {
+                            @Override
+                            public void onNext(RtpsTalkDataMessage request) {
+                                requestIdentities.add(
+                                        utils.findIdentity(request).orElseThrow().identity());
+                            }
+                        });
+        responseData = new Ros2MessageSerializationUtils().write(new AddTwoIntsResponseMessage(3));
+        for (int i = 0; i < BATCH_SIZE; i++) requests.add(new AddTwoIntsRequestMessage(1, 2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        servicesFactory.close();
+        jros2Client.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void sendRequests() throws InterruptedException {
+        futures = client.sendAllAsync(requests);
+        responses.clear();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            var identity = requestIdentities.take();
+            responses.add(
+                    new RtpsTalkDataMessage(
+                            IdentityLayout.RELATED.newParameters(identity), responseData));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<CompletableFuture<AddTwoIntsResponseMessage>> onNext() {
+        for (int i = 0; i < BATCH_SIZE; i++)
+            objectsFactory.deliver(responsesTopic, responses.get(i));
+        return futures;
+    }
+}
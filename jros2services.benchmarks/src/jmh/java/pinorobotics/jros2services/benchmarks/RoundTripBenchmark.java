@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jros2client.JRos2ClientConfiguration;
+import id.jros2client.impl.JRos2ClientImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pinorobotics.jros2services.JRos2Service;
+import pinorobotics.jros2services.JRos2ServiceClient;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration.LocalDispatch;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
+import pinorobotics.jros2services.JRos2ServicesFactory;
+import pinorobotics.jros2services.tests.LoopbackObjectsFactory;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsResponseMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsServiceDefinition;
+
+/**
+ * Measures round trip of the requests from the client to the service and back, when both of them
+ * are in the same JVM and talk over the loopback RTPS client (see {@link LoopbackObjectsFactory}).
+ *
+ * <p>Latency is measured with single request in flight, throughput with {@link #WINDOW_SIZE}
+ * requests in flight. Requests are either sent over RTPS or passed to the service directly (see
+ * {@link LocalDispatch}).
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=RoundTripBenchmark
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+    private static final int WINDOW_SIZE = 64;
+    private static final String SERVICE_NAME = "benchmark_add_two_ints";
+
+    @Param({"DISABLED", "COPY", "SHARED"})
+    public LocalDispatch localDispatch;
+
+    private final AddTwoIntsRequestMessage request = new AddTwoIntsRequestMessage(1, 2);
+    private final List<AddTwoIntsRequestMessage> window = new ArrayList<>(WINDOW_SIZE);
+    private JRos2ClientImpl jros2Client;
+    private JRos2ServicesFactory servicesFactory;
+    private JRos2Service<AddTwoIntsRequestMessage, AddTwoIntsResponseMessage> service;
+    private JRos2ServiceClient<AddTwoIntsRequestMessage, AddTwoIntsResponseMessage> client;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jros2Client =
+                new JRos2ClientImpl(
+                        new JRos2ClientConfiguration.Builder().build(),
+                        new LoopbackObjectsFactory());
+        servicesFactory = new JRos2ServicesFactory();
+        service =
+                servicesFactory.createService(
+                        jros2Client,
+                        new AddTwoIntsServiceDefinition(),
+                        SERVICE_NAME,
+                        request -> new AddTwoIntsResponseMessage(request.a + request.b));
+        service.start();
+        client =
+                servicesFactory.createClient(
+                        jros2Client,
+                        new AddTwoIntsServiceDefinition(),
+                        SERVICE_NAME,
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .localDispatch(localDispatch)
+                                .build());
+        for (int i = 0; i < WINDOW_SIZE; i++) window.add(new AddTwoIntsRequestMessage(i, i));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        service.close();
+        servicesFactory.close();
+        jros2Client.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public AddTwoIntsResponseMessage latency() {
+        return client.sendRequestAsync(request).join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(WINDOW_SIZE)
+    public List<CompletableFuture<AddTwoIntsResponseMessage>> throughput() {
+        var futures = client.sendAllAsync(window);
+        for (int i = 0; i < futures.size(); i++) futures.get(i).join();
+        return futures;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils.IdentityResult;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.impl.ddsrpc.IdentityLayout;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Measures encoding and decoding of sample identities and their lookup in the inline QoS of the
+ * received messages, which both services and clients do for every message.
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=SampleIdentityBenchmark -PjmhProfilers=gc
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SampleIdentityBenchmark {
+
+    /** Received message with the identity */
+    @State(Scope.Thread)
+    public static class ReceivedMessage {
+        /** Parameters which carry identity */
+        @Param({"FASTDDS", "RELATED", "BOTH"})
+        public IdentityLayout layout;
+
+        private RtpsTalkDataMessage message;
+
+        @Setup
+        public void setup() {
+            var identity = new SampleIdentity(new byte[SampleIdentity.GUID_SIZE], 1).toByteArray();
+            message = new RtpsTalkDataMessage(layout.newParameters(identity), new byte[16]);
+        }
+    }
+
+    private final DdsRpcUtils utils = new DdsRpcUtils();
+    private final byte[] guid = new byte[SampleIdentity.GUID_SIZE];
+    private byte[] identity;
+    private long seqNum;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < guid.length; i++) guid[i] = (byte) i;
+        identity = new SampleIdentity(guid, 123_456_789L).toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return new SampleIdentity(guid, ++seqNum).toByteArray();
+    }
+
+    @Benchmark
+    public SampleIdentity decode() {
+        return SampleIdentity.valueOf(identity);
+    }
+
+    @Benchmark
+    public long readSeqNum() {
+        return SampleIdentity.readSeqNum(identity);
+    }
+
+    @Benchmark
+    public Optional<Long> findRequestId(ReceivedMessage received) {
+        return utils.findRequestId(received.message);
+    }
+
+    @Benchmark
+    public Optional<IdentityResult> findIdentity(ReceivedMessage received) {
+        return utils.findIdentity(received.message);
+    }
+}
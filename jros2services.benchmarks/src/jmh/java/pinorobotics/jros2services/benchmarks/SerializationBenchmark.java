@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jros2messages.sensor_msgs.PointCloud2Message;
+import id.jros2messages.std_msgs.HeaderMessage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pinorobotics.jros2services.JRos2ServicesConfiguration;
+import pinorobotics.jros2services.impl.BufferPool;
+import pinorobotics.jros2services.impl.PooledMessageSerializationUtils;
+
+/**
+ * Compares serialization of large messages with and without buffers pool.
+ *
+ * <p>Run with GC profiler to see number of bytes allocated per message (gc.alloc.rate.norm):
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=SerializationBenchmark -PjmhProfilers=gc
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int dataSize;
+
+    private final Ros2MessageSerializationUtils defaultUtils = new Ros2MessageSerializationUtils();
+    private final Ros2MessageSerializationUtils pooledUtils =
+            new PooledMessageSerializationUtils(
+                    new BufferPool(new JRos2ServicesConfiguration.Builder().build()));
+    private PointCloud2Message message;
+
+    @Setup
+    public void setup() {
+        message =
+                new PointCloud2Message()
+                        .withHeader(new HeaderMessage().withFrameId("map"))
+                        .withData(new byte[dataSize]);
+    }
+
+    @Benchmark
+    public byte[] write_default() {
+        return defaultUtils.write(message);
+    }
+
+    @Benchmark
+    public byte[] write_pooled() {
+        return pooledUtils.write(message);
+    }
+}
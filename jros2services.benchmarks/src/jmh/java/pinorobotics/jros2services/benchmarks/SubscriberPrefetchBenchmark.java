@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.benchmarks;
+
+import id.xfunction.concurrent.flow.SimpleSubscriber;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pinorobotics.jros2services.impl.DemandWindow;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Measures number of messages per second which subscriber receives depending on its prefetch (see
+ * {@link DemandWindow}).
+ *
+ * <p>Messages are delivered by {@link SubmissionPublisher} with the buffer of fixed size {@link
+ * #BUFFER_SIZE}, so that only demand of the subscriber changes. It is not the RTPS reader, so
+ * results show overhead of requesting messages in small or large chunks and not the throughput of
+ * RTPS.
+ *
+ * <pre>{@code
+ * gradle :jros2services.benchmarks:jmh -PjmhIncludes=SubscriberPrefetchBenchmark
+ * }</pre>
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SubscriberPrefetchBenchmark {
+
+    private static final int MESSAGE_COUNT = 10_000;
+
+    /** Not smaller than any of the prefetch values */
+    private static final int BUFFER_SIZE = Flow.defaultBufferSize();
+
+    private static final RtpsTalkDataMessage MESSAGE = new RtpsTalkDataMessage(new byte[64]);
+
+    @Param({"1", "8", "32", "128"})
+    public int prefetch;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public void receive() throws InterruptedException {
+        var latch = new CountDownLatch(MESSAGE_COUNT);
+        var demandWindow = new DemandWindow(prefetch);
+        try (var publisher = new SubmissionPublisher<RtpsTalkDataMessage>(executor, BUFFER_SIZE)) {
+            publisher.subscribe(
+                    new SimpleSubscriber<RtpsTalkDataMessage>() {
+                        @Override
+                        public void onNext(RtpsTalkDataMessage message) {
+                            latch.countDown();
+                            var count = demandWindow.onConsumed();
+                            if (count > 0) getSubscription().get().request(count);
+                        }
+                    }.withInitialRequest(demandWindow.getPrefetch()));
+            for (int i = 0; i < MESSAGE_COUNT; i++) publisher.submit(MESSAGE);
+            latch.await();
+        }
+    }
+}
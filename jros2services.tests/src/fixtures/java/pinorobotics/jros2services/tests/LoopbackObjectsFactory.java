@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import id.jros2client.impl.ObjectsFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.atomic.AtomicInteger;
+import pinorobotics.rtpstalk.RtpsTalkClient;
+import pinorobotics.rtpstalk.RtpsTalkConfiguration;
+import pinorobotics.rtpstalk.WriterSettings;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.qos.PublisherQosPolicy;
+import pinorobotics.rtpstalk.qos.SubscriberQosPolicy;
+
+/**
+ * Creates RTPS clients which deliver messages published to the topic to all subscribers of the same
+ * topic in the same JVM, without any network. This allows services and clients created from one
+ * {@link id.jros2client.JRos2Client} to talk to each other.
+ *
+ * <p>Messages are delivered in the thread of the publisher and demand of the subscribers is
+ * ignored.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class LoopbackObjectsFactory extends ObjectsFactory {
+
+    private static final Subscription NO_OP_SUBSCRIPTION =
+            new Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            };
+
+    private final Map<String, List<Subscriber<RtpsTalkDataMessage>>> subscribers =
+            new ConcurrentHashMap<>();
+    private final AtomicInteger nextEntityId = new AtomicInteger(1);
+
+    /** Deliver message to all subscribers of the topic in the current thread */
+    public void deliver(String topic, RtpsTalkDataMessage message) {
+        var topicSubscribers = subscribers.get(topic);
+        if (topicSubscribers == null) return;
+        for (var subscriber : topicSubscribers) subscriber.onNext(message);
+    }
+
+    /**
+     * Called for each message published by any of the RTPS clients. By default it is delivered to
+     * the subscribers of the topic, subclasses may intercept it instead.
+     */
+    protected void onPublished(String topic, RtpsTalkDataMessage message) {
+        deliver(topic, message);
+    }
+
+    @Override
+    public RtpsTalkClient createRtpsTalkClient(RtpsTalkConfiguration config) {
+        return new RtpsTalkClient(config) {
+            @Override
+            public int subscribe(
+                    String topic,
+                    String type,
+                    SubscriberQosPolicy subscriberQosPolicy,
+                    Subscriber<RtpsTalkDataMessage> subscriber) {
+                subscriber.onSubscribe(NO_OP_SUBSCRIPTION);
+                subscribers
+                        .computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>())
+                        .add(subscriber);
+                return nextEntityId.getAndIncrement();
+            }
+
+            @Override
+            public void publish(
+                    String topic,
+                    String type,
+                    PublisherQosPolicy publisherQosPolicy,
+                    Publisher<RtpsTalkDataMessage> publisher) {
+                publisher.subscribe(new TopicSubscriber(topic));
+            }
+
+            @Override
+            public void publish(
+                    String topic,
+                    String type,
+                    PublisherQosPolicy publisherQosPolicy,
+                    WriterSettings writerSettings,
+                    Publisher<RtpsTalkDataMessage> publisher) {
+                publisher.subscribe(new TopicSubscriber(topic));
+            }
+        };
+    }
+
+    /** Passes messages of the publisher to {@link #onPublished(String, RtpsTalkDataMessage)} */
+    private class TopicSubscriber implements Subscriber<RtpsTalkDataMessage> {
+        private final String topic;
+
+        TopicSubscriber(String topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(RtpsTalkDataMessage message) {
+            onPublished(topic, message);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {}
+
+        @Override
+        public void onComplete() {}
+    }
+}
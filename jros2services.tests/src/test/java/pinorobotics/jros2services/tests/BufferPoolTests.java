@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jros2messages.sensor_msgs.PointCloud2Message;
+import id.jros2messages.std_msgs.HeaderMessage;
+import id.jrosmessages.Message;
+import id.jrosmessages.std_msgs.StringMessage;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.jros2services.impl.BufferPool;
+import pinorobotics.jros2services.impl.PooledMessageSerializationUtils;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class BufferPoolTests {
+
+    @Test
+    public void test_size_classes() {
+        var pool = new BufferPool(1 << 20, 100, 1000);
+        Assertions.assertEquals(128, pool.acquire(1).length);
+        Assertions.assertEquals(128, pool.acquire(128).length);
+        Assertions.assertEquals(256, pool.acquire(129).length);
+        Assertions.assertEquals(1024, pool.acquire(1000).length);
+        // larger than max size class
+        Assertions.assertEquals(1025, pool.acquire(1025).length);
+    }
+
+    @Test
+    public void test_reuse() {
+        var pool = new BufferPool(1 << 20, 128, 1024);
+        var buf = pool.acquire(200);
+        pool.release(buf);
+        Assertions.assertEquals(256, pool.getPooledBytes());
+        Assertions.assertSame(buf, pool.acquire(256));
+        Assertions.assertEquals(0, pool.getPooledBytes());
+        Assertions.assertNotSame(buf, pool.acquire(256));
+        // not pooled
+        pool.release(pool.acquire(2000));
+        pool.release(new byte[300]);
+        Assertions.assertEquals(0, pool.getPooledBytes());
+    }
+
+    @Test
+    public void test_max_pooled_bytes() {
+        var pool = new BufferPool(512, 128, 1024);
+        var a = pool.acquire(256);
+        var b = pool.acquire(256);
+        var c = pool.acquire(256);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        Assertions.assertEquals(512, pool.getPooledBytes());
+        Assertions.assertSame(a, pool.acquire(256));
+        Assertions.assertSame(b, pool.acquire(256));
+        Assertions.assertNotSame(c, pool.acquire(256));
+    }
+
+    static Stream<Message> messages() {
+        return Stream.of(
+                new AddTwoIntsRequestMessage(1, 2),
+                new StringMessage(),
+                new StringMessage("a".repeat(10_000)),
+                new PointCloud2Message()
+                        .withHeader(new HeaderMessage().withFrameId("map"))
+                        .withData(new byte[100_000]));
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    public void test_serialization(Message message) {
+        var pool = new BufferPool(1 << 20, 64, 1 << 16);
+        var serializationUtils = new PooledMessageSerializationUtils(pool);
+        var expected = new Ros2MessageSerializationUtils().write(message);
+        // second time buffers are taken from the pool
+        for (int i = 0; i < 2; i++)
+            Assertions.assertArrayEquals(expected, serializationUtils.write(message));
+        Assertions.assertTrue(pool.getPooledBytes() > 0);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.impl.ddsrpc.IdentityLayout;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.rtpstalk.messages.Parameters;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.messages.UserParameterId;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DdsRpcUtilsTests {
+
+    private static final byte[] GUID_A = new byte[16];
+    private static final byte[] GUID_B = new byte[16];
+
+    static {
+        GUID_A[15] = 1;
+        GUID_B[15] = 2;
+    }
+
+    /**
+     * Request identity, reply message and its inline QoS, which {@link Parameters} copies into the
+     * hash table of its own
+     */
+    private static final int MAX_REPLY_ALLOCATED_BYTES = 640;
+
+    private final DdsRpcUtils utils = new DdsRpcUtils();
+
+    @Test
+    public void test_isForeign() {
+        var message = newMessage(UserParameterId.PID_RELATED_SAMPLE_IDENTITY, GUID_A, 5);
+        Assertions.assertFalse(utils.isForeign(message, GUID_A));
+        Assertions.assertTrue(utils.isForeign(message, GUID_B));
+        message = newMessage(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY, GUID_B, 5);
+        Assertions.assertTrue(utils.isForeign(message, GUID_A));
+        Assertions.assertFalse(utils.isForeign(message, GUID_B));
+    }
+
+    @Test
+    public void test_isForeign_without_identity() {
+        Assertions.assertFalse(utils.isForeign(new RtpsTalkDataMessage(new byte[0]), GUID_A));
+        Assertions.assertFalse(
+                utils.isForeign(new RtpsTalkDataMessage(new Parameters(), new byte[0]), GUID_A));
+    }
+
+    @Test
+    public void test_findIdentity() {
+        var identity = new SampleIdentity(GUID_A, 5).toByteArray();
+        for (var layout : IdentityLayout.values()) {
+            var message = new RtpsTalkDataMessage(layout.newParameters(identity), new byte[0]);
+            var result = utils.findIdentity(message).get();
+            Assertions.assertEquals(layout, result.layout());
+            Assertions.assertArrayEquals(identity, result.identity());
+        }
+    }
+
+    /** Reply envelope should not allocate more than few small objects, regardless of layout */
+    @Test
+    public void test_reply_allocations() {
+        var threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().getId();
+        var data = new byte[0];
+        for (var layout : IdentityLayout.values()) {
+            var request =
+                    new RtpsTalkDataMessage(
+                            new Parameters(
+                                    layout.toParameters(
+                                            new SampleIdentity(GUID_A, 5).toByteArray())),
+                            data);
+            var count = 100_000;
+            // warm up
+            for (int i = 0; i < count; i++) newReply(request, data);
+            var allocatedBytes = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < count; i++) newReply(request, data);
+            allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBytes;
+            Assertions.assertTrue(
+                    allocatedBytes / count <= MAX_REPLY_ALLOCATED_BYTES,
+                    layout + " reply allocates " + allocatedBytes / count + " bytes");
+        }
+    }
+
+    private RtpsTalkDataMessage newReply(RtpsTalkDataMessage request, byte[] data) {
+        var identityResult = utils.findIdentity(request).get();
+        return new RtpsTalkDataMessage(
+                identityResult.layout().newParameters(identityResult.identity()), data);
+    }
+
+    private RtpsTalkDataMessage newMessage(short parameterId, byte[] guid, long seqNum) {
+        return new RtpsTalkDataMessage(
+                new Parameters(Map.of(parameterId, new SampleIdentity(guid, seqNum).toByteArray())),
+                new byte[0]);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.DeduplicationWindow;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DeduplicationWindowTests {
+
+    @Test
+    public void test_duplicates() {
+        var window = new DeduplicationWindow(10, 100, Duration.ofMinutes(1));
+        Assertions.assertTrue(window.register(identity(1)).isEmpty());
+        // running
+        Assertions.assertTrue(window.register(identity(1)).get().reply().isEmpty());
+        window.complete(identity(1), new byte[] {5});
+        Assertions.assertArrayEquals(
+                new byte[] {5}, window.register(identity(1)).get().reply().get());
+        // failed requests are forgotten
+        Assertions.assertTrue(window.register(identity(2)).isEmpty());
+        window.remove(identity(2));
+        Assertions.assertTrue(window.find(identity(2)).isEmpty());
+        Assertions.assertEquals(1, window.size());
+    }
+
+    @Test
+    public void test_eviction() throws Exception {
+        var window = new DeduplicationWindow(2, 10, Duration.ofMillis(100));
+        for (int i = 1; i <= 3; i++) window.register(identity(i));
+        Assertions.assertEquals(2, window.size());
+        Assertions.assertTrue(window.find(identity(1)).isEmpty());
+        // oldest replies are evicted when they exceed the size limit
+        window.complete(identity(2), new byte[6]);
+        window.complete(identity(3), new byte[6]);
+        Assertions.assertEquals(1, window.size());
+        Assertions.assertEquals(6, window.getBytes());
+        Assertions.assertTrue(window.find(identity(3)).isPresent());
+        Thread.sleep(150);
+        Assertions.assertTrue(window.find(identity(3)).isEmpty());
+        Assertions.assertEquals(0, window.getBytes());
+    }
+
+    private byte[] identity(long seqNum) {
+        return new SampleIdentity(new byte[SampleIdentity.GUID_SIZE], seqNum).toByteArray();
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.DemandWindow;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DemandWindowTests {
+
+    @Test
+    public void test_replenish() {
+        var window = new DemandWindow(8);
+        Assertions.assertEquals(8, window.getPrefetch());
+        for (int i = 0; i < 3; i++) Assertions.assertEquals(0, window.onConsumed());
+        Assertions.assertEquals(4, window.onConsumed());
+        for (int i = 0; i < 3; i++) Assertions.assertEquals(0, window.onConsumed());
+        Assertions.assertEquals(4, window.onConsumed());
+    }
+
+    @Test
+    public void test_no_prefetch() {
+        var window = new DemandWindow(1);
+        Assertions.assertEquals(1, window.onConsumed());
+        Assertions.assertEquals(1, window.onConsumed());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.FairQueue;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class FairQueueTests {
+
+    @Test
+    public void test_round_robin() {
+        var queue = new FairQueue<String>();
+        queue.add("a", "a1");
+        queue.add("a", "a2");
+        queue.add("a", "a3");
+        queue.add("b", "b1");
+        Assertions.assertEquals(List.of("a1", "b1", "a2", "a3"), pollAll(queue));
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void test_deficit() {
+        var queue = new FairQueue<String>();
+        queue.add("a", "a1");
+        queue.add("a", "a2");
+        queue.add("b", "b1");
+        queue.add("b", "b2");
+        Assertions.assertEquals("a1", queue.poll());
+        // a1 was expensive so "b" receives more turns
+        queue.charge("a", 100);
+        Assertions.assertEquals("b1", queue.poll());
+        queue.charge("b", 1);
+        Assertions.assertEquals(List.of("b2", "a2"), pollAll(queue));
+    }
+
+    @Test
+    public void test_pollLongest() {
+        var queue = new FairQueue<String>();
+        queue.add("a", "a1");
+        queue.add("b", "b1");
+        queue.add("b", "b2");
+        Assertions.assertEquals(2, queue.clientCount());
+        Assertions.assertEquals(2, queue.longestClientSize());
+        Assertions.assertEquals("b1", queue.pollLongest());
+        Assertions.assertEquals(2, queue.size());
+        Assertions.assertEquals("a1", queue.pollLongest());
+        Assertions.assertEquals(List.of("b2"), pollAll(queue));
+    }
+
+    private List<String> pollAll(FairQueue<String> queue) {
+        var items = new ArrayList<String>();
+        String item;
+        while ((item = queue.poll()) != null) items.add(item);
+        return items;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.HashedWheelTimer;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class HashedWheelTimerTests {
+
+    @Test
+    public void test_expire_and_cancel() throws Exception {
+        var timer = new HashedWheelTimer("test-timer", Duration.ofMillis(5), 4);
+        var expired = new AtomicInteger();
+        var latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            // delays which are longer than one wheel rotation
+            timer.newTimeout(
+                    () -> {
+                        expired.incrementAndGet();
+                        latch.countDown();
+                    },
+                    Duration.ofMillis(10 * i));
+        }
+        var cancelled = timer.newTimeout(() -> expired.incrementAndGet(), Duration.ofMillis(50));
+        Assertions.assertTrue(cancelled.cancel());
+        Assertions.assertFalse(cancelled.cancel());
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assertions.assertEquals(10, expired.get());
+        Assertions.assertEquals(0, timer.getPendingCount());
+    }
+
+    @Test
+    public void test_not_expired_before_deadline() throws Exception {
+        var timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 8);
+        var latch = new CountDownLatch(1);
+        var startAt = System.nanoTime();
+        timer.newTimeout(latch::countDown, Duration.ofMillis(200));
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(
+                Duration.ofNanos(System.nanoTime() - startAt).toMillis() >= 200,
+                "Expired too early");
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.InFlightLimiter;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class InFlightLimiterTests {
+
+    @Test
+    public void test_limit() {
+        var limiter = new InFlightLimiter<String>(2, item -> {});
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+        Assertions.assertEquals(2, limiter.getInFlightCount());
+        limiter.release();
+        Assertions.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void test_waiting() {
+        var admitted = new ArrayList<String>();
+        var limiter = new InFlightLimiter<String>(1, admitted::add);
+        Assertions.assertTrue(limiter.tryAcquire());
+        limiter.acquireAsync("a");
+        limiter.acquireAsync("b");
+        // waiting items go first
+        Assertions.assertFalse(limiter.tryAcquire());
+        Assertions.assertEquals("[]", admitted.toString());
+        limiter.release();
+        Assertions.assertEquals("[a]", admitted.toString());
+        limiter.release();
+        Assertions.assertEquals("[a, b]", admitted.toString());
+        Assertions.assertEquals(1, limiter.getInFlightCount());
+    }
+
+    @Test
+    public void test_removeWaiting() {
+        var admitted = new ArrayList<String>();
+        var limiter = new InFlightLimiter<String>(1, admitted::add);
+        limiter.acquireAsync("a");
+        limiter.acquireAsync("b");
+        var removed = new ArrayList<String>();
+        limiter.removeWaiting(removed::add);
+        Assertions.assertEquals("[a]", admitted.toString());
+        Assertions.assertEquals("[b]", removed.toString());
+        Assertions.assertFalse(limiter.tryAcquire());
+        limiter.release();
+        Assertions.assertEquals("[a]", admitted.toString());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.HashSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.InFlightQueue;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class InFlightQueueTests {
+
+    @Test
+    public void test_pollOldest() {
+        var completed = new HashSet<Integer>();
+        var queue = new InFlightQueue<Integer>(4, completed::contains);
+        Assertions.assertNull(queue.pollOldest());
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        completed.add(1);
+        Assertions.assertEquals(2, queue.pollOldest());
+        Assertions.assertEquals(3, queue.pollOldest());
+        Assertions.assertNull(queue.pollOldest());
+    }
+
+    @Test
+    public void test_purge() {
+        var completed = new HashSet<Integer>();
+        var queue = new InFlightQueue<Integer>(10, completed::contains);
+        // oldest item stays in flight while others complete
+        queue.add(0);
+        for (int i = 1; i <= 1000; i++) {
+            queue.add(i);
+            completed.add(i);
+        }
+        Assertions.assertTrue(queue.size() <= 20, "Queue size " + queue.size());
+        Assertions.assertEquals(0, queue.pollOldest());
+        Assertions.assertNull(queue.pollOldest());
+    }
+}
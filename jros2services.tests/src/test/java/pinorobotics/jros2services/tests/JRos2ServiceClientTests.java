@@ -22,10 +22,26 @@ import id.jros2client.impl.JRos2ClientImpl;
 import id.jros2client.impl.ObjectsFactory;
 import id.jros2client.impl.rmw.DdsNameMapper;
 import id.jroscommon.RosName;
+import id.xfunction.PreconditionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration.OverflowPolicy;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
 import pinorobotics.jros2services.impl.JRos2ServiceClientImpl;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsResponseMessage;
 import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsServiceDefinition;
+import pinorobotics.jrosservices.exceptions.JRosServiceClientException;
 
 /**
  * @author lambdaprime intid@protonmail.com
@@ -56,4 +72,295 @@ public class JRos2ServiceClientTests {
         }
         Assertions.assertEquals(true, isStarted[0]);
     }
+
+    @Test
+    public void test_request_timeout() {
+        var jrosClient =
+                new JRos2ClientImpl(
+                        new JRos2ClientConfiguration.Builder().build(), new ObjectsFactory()) {
+                    @Override
+                    public void start() {}
+                };
+        try (var client =
+                new JRos2ServiceClientImpl<>(
+                        jrosClient,
+                        new AddTwoIntsServiceDefinition(),
+                        new RosName("serviceHello"),
+                        new DdsNameMapper(),
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .defaultTimeout(Duration.ofMillis(50))
+                                .build())) {
+            var withDefaultTimeout = client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+            var withTimeout =
+                    client.sendRequestAsync(
+                            new AddTwoIntsRequestMessage(1, 2), Duration.ofMillis(100));
+            // dependent actions of the callers do not run in the timer thread
+            var completedBy =
+                    withDefaultTimeout.handle((response, e) -> Thread.currentThread().getName());
+            for (var future : List.of(withDefaultTimeout, withTimeout)) {
+                var exception = Assertions.assertThrows(ExecutionException.class, future::get);
+                Assertions.assertEquals(TimeoutException.class, exception.getCause().getClass());
+            }
+            Assertions.assertNotEquals("jros2services-timer", completedBy.join());
+        }
+    }
+
+    @Test
+    public void test_send_requests_batch() {
+        var jrosClient =
+                new JRos2ClientImpl(
+                        new JRos2ClientConfiguration.Builder().build(), new ObjectsFactory()) {
+                    @Override
+                    public void start() {}
+                };
+        try (var client =
+                new JRos2ServiceClientImpl<>(
+                        jrosClient,
+                        new AddTwoIntsServiceDefinition(),
+                        new RosName("serviceHello"),
+                        new DdsNameMapper(),
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .maxPendingRequests(2)
+                                .build())) {
+            var futures =
+                    client.sendAllAsync(
+                            List.of(
+                                    new AddTwoIntsRequestMessage(1, 2),
+                                    new AddTwoIntsRequestMessage(3, 4),
+                                    new AddTwoIntsRequestMessage(5, 6)),
+                            Duration.ofMillis(50));
+            Assertions.assertEquals(3, futures.size());
+            // last request does not fit into pending requests table and waits for the in flight
+            // limit until it times out
+            for (var future : futures) {
+                var exception = Assertions.assertThrows(ExecutionException.class, future::get);
+                Assertions.assertEquals(TimeoutException.class, exception.getCause().getClass());
+            }
+            // table is released after the timeout
+            Assertions.assertEquals(
+                    TimeoutException.class,
+                    Assertions.assertThrows(
+                                    ExecutionException.class,
+                                    client.sendAllAsync(
+                                                            List.of(
+                                                                    new AddTwoIntsRequestMessage(
+                                                                            1, 2)),
+                                                            Duration.ofMillis(50))
+                                                    .get(0)
+                                            ::get)
+                            .getCause()
+                            .getClass());
+        }
+    }
+
+    @Test
+    public void test_in_flight_limit() throws Exception {
+        for (var policy : OverflowPolicy.values()) {
+            try (var client =
+                    new JRos2ServiceClientImpl<>(
+                            newJRosClient(),
+                            new AddTwoIntsServiceDefinition(),
+                            new RosName("serviceHello"),
+                            new DdsNameMapper(),
+                            new JRos2ServiceClientConfiguration.Builder()
+                                    .maxInFlightRequests(1)
+                                    .overflowPolicy(policy)
+                                    .build())) {
+                var first = client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+                var second =
+                        client.sendRequestAsync(
+                                new AddTwoIntsRequestMessage(3, 4), Duration.ofMillis(50));
+                switch (policy) {
+                    case FAIL:
+                        Assertions.assertFalse(first.isDone());
+                        assertFailedWith(JRosServiceClientException.class, second);
+                        break;
+                    case DROP_OLDEST:
+                        assertFailedWith(JRosServiceClientException.class, first);
+                        assertFailedWith(TimeoutException.class, second);
+                        break;
+                    case WAIT:
+                        Assertions.assertFalse(first.isDone());
+                        // waiting time counts towards the timeout
+                        assertFailedWith(TimeoutException.class, second);
+                        Assertions.assertFalse(first.isDone());
+                        first.cancel(false);
+                        // permit is released and available for new requests
+                        assertFailedWith(
+                                TimeoutException.class,
+                                client.sendRequestAsync(
+                                        new AddTwoIntsRequestMessage(5, 6), Duration.ofMillis(50)));
+                        break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_drop_oldest() throws Exception {
+        try (var client =
+                new JRos2ServiceClientImpl<>(
+                        newJRosClient(),
+                        new AddTwoIntsServiceDefinition(),
+                        new RosName("serviceHello"),
+                        new DdsNameMapper(),
+                        new JRos2ServiceClientConfiguration.Builder()
+                                .maxInFlightRequests(2)
+                                .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                                .build())) {
+            var futures = new ArrayList<CompletableFuture<AddTwoIntsResponseMessage>>();
+            for (int i = 0; i < 5; i++)
+                futures.add(client.sendRequestAsync(new AddTwoIntsRequestMessage(i, i)));
+            // requests are dropped in the order they were sent
+            for (int i = 0; i < 3; i++)
+                assertFailedWith(JRosServiceClientException.class, futures.get(i));
+            Assertions.assertFalse(futures.get(3).isDone());
+            Assertions.assertFalse(futures.get(4).isDone());
+            // completed requests are not dropped again
+            futures.get(3).cancel(false);
+            var next = client.sendRequestAsync(new AddTwoIntsRequestMessage(5, 5));
+            Assertions.assertFalse(futures.get(4).isDone());
+            Assertions.assertFalse(next.isDone());
+            client.sendRequestAsync(new AddTwoIntsRequestMessage(6, 6));
+            assertFailedWith(JRosServiceClientException.class, futures.get(4));
+            Assertions.assertFalse(next.isDone());
+        }
+    }
+
+    @Test
+    public void test_response_cache() throws Exception {
+        var objectsFactory =
+                new ServiceStubObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(),
+                        "serviceHello",
+                        request -> new AddTwoIntsResponseMessage(request.a + request.b));
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var client =
+                        new JRos2ServiceClientImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .responseCacheSize(10)
+                                        .responseCacheTtl(Duration.ofMillis(300))
+                                        .build())) {
+            Assertions.assertEquals(
+                    3, client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)).get().sum);
+            var cached = client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+            Assertions.assertTrue(cached.isDone());
+            Assertions.assertEquals(3, cached.get().sum);
+            Assertions.assertEquals(1, objectsFactory.getRequestsCount());
+            Assertions.assertEquals(
+                    7, client.sendRequestAsync(new AddTwoIntsRequestMessage(3, 4)).get().sum);
+            Assertions.assertEquals(2, objectsFactory.getRequestsCount());
+            Thread.sleep(400);
+            Assertions.assertEquals(
+                    3, client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)).get().sum);
+            Assertions.assertEquals(3, objectsFactory.getRequestsCount());
+        }
+    }
+
+    @Test
+    public void test_coalesce_requests() throws Exception {
+        var responseLatch = new CountDownLatch(1);
+        var objectsFactory =
+                new ServiceStubObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(),
+                        "serviceHello",
+                        request -> {
+                            try {
+                                responseLatch.await();
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                            return new AddTwoIntsResponseMessage(request.a + request.b);
+                        });
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var client =
+                        new JRos2ServiceClientImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .coalesceRequests(true)
+                                        .defaultTimeout(Duration.ofSeconds(10))
+                                        .build())) {
+            var futures =
+                    List.of(
+                            client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)),
+                            client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)),
+                            client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)));
+            // cancelling one of the callers does not affect the others
+            futures.get(0).cancel(false);
+            responseLatch.countDown();
+            Assertions.assertEquals(3, futures.get(1).get().sum);
+            Assertions.assertEquals(3, futures.get(2).get().sum);
+            Assertions.assertEquals(1, objectsFactory.getRequestsCount());
+            // completed requests are not coalesced
+            Assertions.assertEquals(
+                    3, client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2)).get().sum);
+            Assertions.assertEquals(2, objectsFactory.getRequestsCount());
+        }
+    }
+
+    @Test
+    public void test_coalesce_requests_timeout() throws Exception {
+        Assertions.assertThrows(
+                PreconditionException.class,
+                () -> new JRos2ServiceClientConfiguration.Builder().coalesceRequests(true).build());
+        var requests = new Semaphore(0);
+        var objectsFactory =
+                new ServiceStubObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(),
+                        "serviceHello",
+                        request -> {
+                            requests.release();
+                            return null;
+                        });
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var client =
+                        new JRos2ServiceClientImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .coalesceRequests(true)
+                                        .defaultTimeout(Duration.ofSeconds(10))
+                                        .build())) {
+            // response to this request is lost
+            var lost = client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+            var attached =
+                    client.sendRequestAsync(
+                            new AddTwoIntsRequestMessage(1, 2), Duration.ofMillis(50));
+            assertFailedWith(TimeoutException.class, attached);
+            Assertions.assertEquals(1, objectsFactory.getRequestsCount());
+            // request with lost response is not attached to anymore
+            client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+            Assertions.assertTrue(requests.tryAcquire(2, 1, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, objectsFactory.getRequestsCount());
+            Assertions.assertFalse(lost.isDone());
+        }
+    }
+
+    private void assertFailedWith(Class<?> exceptionClass, Future<?> future) {
+        var exception = Assertions.assertThrows(ExecutionException.class, future::get);
+        Assertions.assertEquals(exceptionClass, exception.getCause().getClass());
+    }
+
+    private JRos2ClientImpl newJRosClient() {
+        return new JRos2ClientImpl(
+                new JRos2ClientConfiguration.Builder().build(), new ObjectsFactory()) {
+            @Override
+            public void start() {}
+        };
+    }
 }
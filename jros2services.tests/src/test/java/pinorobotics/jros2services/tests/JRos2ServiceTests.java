@@ -21,10 +21,39 @@ import id.jros2client.JRos2ClientConfiguration;
 import id.jros2client.impl.JRos2ClientImpl;
 import id.jros2client.impl.ObjectsFactory;
 import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jros2messages.Ros2MessageSerializationUtils;
 import id.jroscommon.RosName;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.AsyncServiceHandler;
+import pinorobotics.jros2services.BatchServiceHandler;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration.LocalDispatch;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.ExecutionMode;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jros2services.JRos2ServicesFactory;
+import pinorobotics.jros2services.ServiceHandler;
+import pinorobotics.jros2services.impl.HandlerExecutors;
 import pinorobotics.jros2services.impl.JRos2ServiceImpl;
+import pinorobotics.jros2services.impl.SharedResources;
+import pinorobotics.jros2services.impl.VirtualThreads;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsRequestMessage;
+import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsResponseMessage;
 import pinorobotics.jros2services.tests.integration.example_interfaces_msgs.AddTwoIntsServiceDefinition;
 
 /**
@@ -58,4 +87,503 @@ public class JRos2ServiceTests {
         }
         Assertions.assertEquals(true, isStarted[0]);
     }
+
+    @Test
+    public void test_virtual_threads_execution_mode() throws Exception {
+        var executor =
+                HandlerExecutors.newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .executionMode(ExecutionMode.VIRTUAL_THREADS)
+                                .build(),
+                        new RosName("serviceHello"),
+                        SharedResources.NONE);
+        try {
+            var thread = executor.submit(() -> Thread.currentThread().toString()).get();
+            // falls back to platform threads when virtual ones are not supported
+            Assertions.assertEquals(
+                    VirtualThreads.isSupported(), thread.startsWith("VirtualThread"), thread);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_async_handler() throws Exception {
+        var futures = new CopyOnWriteArrayList<CompletableFuture<AddTwoIntsResponseMessage>>();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var service =
+                        new JRos2ServiceImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .maxConcurrentRequests(1)
+                                        .build(),
+                                SharedResources.NONE,
+                                (AsyncServiceHandler<
+                                                AddTwoIntsRequestMessage,
+                                                AddTwoIntsResponseMessage>)
+                                        request -> {
+                                            var future =
+                                                    new CompletableFuture<
+                                                            AddTwoIntsResponseMessage>();
+                                            futures.add(future);
+                                            return future.thenApply(
+                                                    r ->
+                                                            new AddTwoIntsResponseMessage(
+                                                                    request.a + request.b));
+                                        },
+                                new Ros2MessageSerializationUtils())) {
+            service.start();
+            // single handler thread accepts all requests without waiting for their completion
+            for (int i = 0; i < 3; i++)
+                objectsFactory.sendRequest(i, new AddTwoIntsRequestMessage(i, 10));
+            while (futures.size() < 3) Thread.sleep(10);
+            // complete in the reverse order
+            for (int i = 2; i >= 0; i--) {
+                futures.get(i).complete(null);
+                var response = objectsFactory.takeResponse(Duration.ofSeconds(1));
+                Assertions.assertEquals(i, response.identity().seqNum());
+                Assertions.assertEquals(i + 10, response.message().sum);
+            }
+        }
+    }
+
+    @Test
+    public void test_duplicate_requests() throws Exception {
+        var executed = new AtomicInteger();
+        var blocker = new CountDownLatch(1);
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var service =
+                        new JRos2ServiceImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .deduplicationWindowSize(10)
+                                        .build(),
+                                SharedResources.NONE,
+                                (ServiceHandler<
+                                                AddTwoIntsRequestMessage,
+                                                AddTwoIntsResponseMessage>)
+                                        request -> {
+                                            executed.incrementAndGet();
+                                            blocker.await();
+                                            return new AddTwoIntsResponseMessage(
+                                                    request.a + request.b);
+                                        },
+                                new Ros2MessageSerializationUtils())) {
+            service.start();
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 2));
+            while (executed.get() == 0) Thread.sleep(10);
+            // copy of the running request is dropped
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 2));
+            blocker.countDown();
+            Assertions.assertEquals(
+                    3, objectsFactory.takeResponse(Duration.ofSeconds(1)).message().sum);
+            Assertions.assertNull(objectsFactory.takeResponse(Duration.ofMillis(100)));
+            // copy of the completed request receives the same reply
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 2));
+            var response = objectsFactory.takeResponse(Duration.ofSeconds(1));
+            Assertions.assertEquals(1, response.identity().seqNum());
+            Assertions.assertEquals(3, response.message().sum);
+            Assertions.assertEquals(1, executed.get());
+        }
+    }
+
+    @Test
+    public void test_rejected_request() throws Exception {
+        var blocker = new CountDownLatch(1);
+        var executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var service =
+                        new JRos2ServiceImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                executor,
+                                request -> {
+                                    blocker.await();
+                                    return new AddTwoIntsResponseMessage(request.a + request.b);
+                                },
+                                new Ros2MessageSerializationUtils(),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .orderedReplies(true)
+                                        .deduplicationWindowSize(10)
+                                        .build(),
+                                SharedResources.NONE)) {
+            service.start();
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 0));
+            // executor is busy and rejects the request
+            objectsFactory.sendRequest(2, new AddTwoIntsRequestMessage(2, 0));
+            blocker.countDown();
+            Assertions.assertEquals(
+                    1, objectsFactory.takeResponse(Duration.ofSeconds(1)).identity().seqNum());
+            while (executor.getActiveCount() > 0) Thread.sleep(10);
+            // copy of the rejected request is not dropped and is not waited for
+            objectsFactory.sendRequest(2, new AddTwoIntsRequestMessage(2, 0));
+            Assertions.assertEquals(
+                    2, objectsFactory.takeResponse(Duration.ofSeconds(1)).message().sum);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_service_host() throws Exception {
+        var threadName = new AtomicReference<String>();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory();
+                var host = servicesFactory.createServiceHost(jrosClient, 1)) {
+            host.addService(
+                    new AddTwoIntsServiceDefinition(),
+                    new RosName("serviceHello"),
+                    request -> {
+                        threadName.set(Thread.currentThread().getName());
+                        return new AddTwoIntsResponseMessage(request.a + request.b);
+                    });
+            host.start();
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 2));
+            Assertions.assertEquals(
+                    3, objectsFactory.takeResponse(Duration.ofSeconds(1)).message().sum);
+            Assertions.assertTrue(
+                    threadName.get().startsWith("jros2services-host-"), threadName.get());
+        }
+    }
+
+    @Test
+    public void test_service_host_close() throws Exception {
+        var executed = new AtomicInteger();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory()) {
+            var host = servicesFactory.createServiceHost(jrosClient, 1);
+            var closed =
+                    host.addService(
+                            new AddTwoIntsServiceDefinition(),
+                            new RosName("serviceClosed"),
+                            request -> new AddTwoIntsResponseMessage());
+            host.addService(
+                    new AddTwoIntsServiceDefinition(),
+                    new RosName("serviceHello"),
+                    new JRos2ServiceConfiguration.Builder().maxConcurrentRequests(1).build(),
+                    request -> {
+                        Thread.sleep(50);
+                        executed.incrementAndGet();
+                        return new AddTwoIntsResponseMessage(request.a + request.b);
+                    });
+            host.start();
+            closed.close();
+            for (int i = 0; i < 3; i++)
+                objectsFactory.sendRequest(i, new AddTwoIntsRequestMessage(i, 10));
+            // queued requests are executed and replied before dispatcher is shutdown
+            host.close();
+            Assertions.assertEquals(3, executed.get());
+            var sums = new HashSet<Long>();
+            for (int i = 0; i < 3; i++)
+                sums.add(objectsFactory.takeResponse(Duration.ofSeconds(1)).message().sum);
+            Assertions.assertEquals(Set.of(10L, 11L, 12L), sums);
+        }
+    }
+
+    @Test
+    public void test_local_dispatch() throws Exception {
+        var received = new AtomicReference<AddTwoIntsRequestMessage>();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory();
+                var service =
+                        servicesFactory.createService(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                "serviceHello",
+                                request -> {
+                                    received.set(request);
+                                    return new AddTwoIntsResponseMessage(request.a + request.b);
+                                })) {
+            service.start();
+            BiFunction<LocalDispatch, AddTwoIntsRequestMessage, AddTwoIntsResponseMessage> call =
+                    (localDispatch, request) -> {
+                        try (var client =
+                                servicesFactory.createClient(
+                                        jrosClient,
+                                        new AddTwoIntsServiceDefinition(),
+                                        "serviceHello",
+                                        new JRos2ServiceClientConfiguration.Builder()
+                                                .localDispatch(localDispatch)
+                                                .build())) {
+                            return client.sendRequestAsync(request, Duration.ofSeconds(1)).join();
+                        }
+                    };
+
+            var request = new AddTwoIntsRequestMessage(1, 2);
+            Assertions.assertEquals(3, call.apply(LocalDispatch.COPY, request).sum);
+            Assertions.assertNotSame(request, received.get());
+            Assertions.assertEquals(3, call.apply(LocalDispatch.SHARED, request).sum);
+            Assertions.assertSame(request, received.get());
+            // nothing was sent over RTPS
+            Assertions.assertNull(objectsFactory.takeResponse(Duration.ofMillis(100)));
+
+            // request and its response go over RTPS
+            Assertions.assertEquals(3, call.apply(LocalDispatch.DISABLED, request).sum);
+            Assertions.assertEquals(
+                    3, objectsFactory.takeResponse(Duration.ofSeconds(1)).message().sum);
+        }
+    }
+
+    @Test
+    public void test_async_handler_null_future() throws Exception {
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory();
+                var service =
+                        servicesFactory.createAsyncService(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new JRos2ServiceConfiguration.Builder().build(),
+                                (AsyncServiceHandler<
+                                                AddTwoIntsRequestMessage,
+                                                AddTwoIntsResponseMessage>)
+                                        request -> null);
+                var client =
+                        servicesFactory.createClient(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                "serviceHello",
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .localDispatch(LocalDispatch.SHARED)
+                                        .build())) {
+            service.start();
+            var exception =
+                    Assertions.assertThrows(
+                            ExecutionException.class,
+                            client.sendRequestAsync(
+                                            new AddTwoIntsRequestMessage(1, 2),
+                                            Duration.ofSeconds(1))
+                                    ::get);
+            Assertions.assertEquals(
+                    "Service handler returned null future", exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void test_local_dispatch_timeout() throws Exception {
+        var executed = new CopyOnWriteArrayList<AddTwoIntsRequestMessage>();
+        var blocker = new CountDownLatch(1);
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory();
+                var service =
+                        servicesFactory.createService(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .maxConcurrentRequests(1)
+                                        .build(),
+                                request -> {
+                                    executed.add(request);
+                                    blocker.await();
+                                    return new AddTwoIntsResponseMessage(request.a + request.b);
+                                });
+                var client =
+                        servicesFactory.createClient(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                "serviceHello",
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .localDispatch(LocalDispatch.COPY)
+                                        .build())) {
+            service.start();
+            var running = client.sendRequestAsync(new AddTwoIntsRequestMessage(1, 2));
+            while (executed.isEmpty()) Thread.sleep(10);
+            var queued =
+                    client.sendRequestAsync(
+                            new AddTwoIntsRequestMessage(3, 4), Duration.ofMillis(50));
+            var exception = Assertions.assertThrows(ExecutionException.class, queued::get);
+            Assertions.assertInstanceOf(TimeoutException.class, exception.getCause());
+            blocker.countDown();
+            Assertions.assertEquals(3, running.get().sum);
+            // request which timed out in the queue is not executed
+            Thread.sleep(100);
+            Assertions.assertEquals(1, executed.size());
+        }
+    }
+
+    @Test
+    public void test_sharded_service() throws Exception {
+        var executed = new CopyOnWriteArrayList<AddTwoIntsRequestMessage>();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var service =
+                        new JRos2ServiceImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceConfiguration.Builder().shardCount(4).build(),
+                                SharedResources.NONE,
+                                request -> request.a,
+                                request -> {
+                                    executed.add(request);
+                                    return new AddTwoIntsResponseMessage(request.a + request.b);
+                                },
+                                new Ros2MessageSerializationUtils())) {
+            service.start();
+            var count = 200;
+            // key is in "a", order is in "b"
+            for (int i = 0; i < count; i++)
+                objectsFactory.sendRequest(i, new AddTwoIntsRequestMessage(i % 8, i));
+            for (int i = 0; i < count; i++)
+                Assertions.assertNotNull(objectsFactory.takeResponse(Duration.ofSeconds(1)));
+            for (long key = 0; key < 8; key++) {
+                var k = key;
+                var order = executed.stream().filter(r -> r.a == k).mapToLong(r -> r.b).toArray();
+                for (int i = 1; i < order.length; i++)
+                    Assertions.assertTrue(order[i - 1] < order[i]);
+            }
+        }
+    }
+
+    @Test
+    public void test_local_dispatch_batch() throws Exception {
+        var batchSizes = new CopyOnWriteArrayList<Integer>();
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var servicesFactory = new JRos2ServicesFactory();
+                var service =
+                        servicesFactory.createBatchService(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .maxBatchSize(2)
+                                        .maxBatchDelay(Duration.ofSeconds(10))
+                                        .build(),
+                                (BatchServiceHandler<
+                                                AddTwoIntsRequestMessage,
+                                                AddTwoIntsResponseMessage>)
+                                        requests -> {
+                                            batchSizes.add(requests.size());
+                                            return requests.stream()
+                                                    .map(
+                                                            r ->
+                                                                    new AddTwoIntsResponseMessage(
+                                                                            r.a + r.b))
+                                                    .toList();
+                                        });
+                var client =
+                        servicesFactory.createClient(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                "serviceHello",
+                                new JRos2ServiceClientConfiguration.Builder()
+                                        .localDispatch(LocalDispatch.SHARED)
+                                        .build())) {
+            service.start();
+            var futures =
+                    client.sendAllAsync(
+                            List.of(
+                                    new AddTwoIntsRequestMessage(1, 2),
+                                    new AddTwoIntsRequestMessage(3, 4)));
+            Assertions.assertEquals(3, futures.get(0).get().sum);
+            Assertions.assertEquals(7, futures.get(1).get().sum);
+            // local requests join the batch same as the requests received over RTPS
+            Assertions.assertEquals(List.of(2), batchSizes);
+        }
+    }
+
+    @Test
+    public void test_batch_ordered_replies() throws Exception {
+        var executed = new AtomicInteger();
+        var blocker = new CountDownLatch(1);
+        var objectsFactory =
+                new ServiceLoopbackObjectsFactory<>(
+                        new AddTwoIntsServiceDefinition(), "serviceHello");
+        try (var jrosClient =
+                        new JRos2ClientImpl(
+                                new JRos2ClientConfiguration.Builder().build(), objectsFactory);
+                var service =
+                        new JRos2ServiceImpl<>(
+                                jrosClient,
+                                new AddTwoIntsServiceDefinition(),
+                                new RosName("serviceHello"),
+                                new DdsNameMapper(),
+                                new JRos2ServiceConfiguration.Builder()
+                                        .maxBatchSize(1)
+                                        .orderedReplies(true)
+                                        .build(),
+                                SharedResources.NONE,
+                                (BatchServiceHandler<
+                                                AddTwoIntsRequestMessage,
+                                                AddTwoIntsResponseMessage>)
+                                        requests -> {
+                                            if (requests.get(0).a == 1) blocker.await();
+                                            executed.incrementAndGet();
+                                            return List.of(
+                                                    new AddTwoIntsResponseMessage(
+                                                            requests.get(0).a));
+                                        },
+                                new Ros2MessageSerializationUtils())) {
+            service.start();
+            objectsFactory.sendRequest(1, new AddTwoIntsRequestMessage(1, 0));
+            objectsFactory.sendRequest(2, new AddTwoIntsRequestMessage(2, 0));
+            while (executed.get() == 0) Thread.sleep(10);
+            // reply to the second batch waits for the first one
+            Assertions.assertNull(objectsFactory.takeResponse(Duration.ofMillis(100)));
+            blocker.countDown();
+            Assertions.assertEquals(
+                    1, objectsFactory.takeResponse(Duration.ofSeconds(1)).identity().seqNum());
+            Assertions.assertEquals(
+                    2, objectsFactory.takeResponse(Duration.ofSeconds(1)).identity().seqNum());
+        }
+    }
 }
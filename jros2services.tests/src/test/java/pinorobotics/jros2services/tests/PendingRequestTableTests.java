@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.ArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.PendingRequestTable;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PendingRequestTableTests {
+
+    private record TestEntry(long seqNum) implements PendingRequestTable.Entry {}
+
+    @Test
+    public void test_capacity_is_power_of_two() {
+        Assertions.assertEquals(1, new PendingRequestTable<TestEntry>(1).capacity());
+        Assertions.assertEquals(8, new PendingRequestTable<TestEntry>(5).capacity());
+        Assertions.assertEquals(8, new PendingRequestTable<TestEntry>(8).capacity());
+    }
+
+    @Test
+    public void test_put_remove() {
+        var table = new PendingRequestTable<TestEntry>(4);
+        var entry = new TestEntry(3);
+        Assertions.assertTrue(table.put(entry));
+        Assertions.assertEquals(entry, table.get(3));
+        // same slot but different request
+        Assertions.assertNull(table.get(7));
+        Assertions.assertNull(table.remove(7));
+        Assertions.assertEquals(entry, table.remove(3));
+        Assertions.assertNull(table.remove(3));
+        Assertions.assertNull(table.get(3));
+    }
+
+    @Test
+    public void test_full() {
+        var table = new PendingRequestTable<TestEntry>(2);
+        Assertions.assertTrue(table.put(new TestEntry(1)));
+        Assertions.assertTrue(table.put(new TestEntry(2)));
+        Assertions.assertFalse(table.put(new TestEntry(3)));
+        Assertions.assertNotNull(table.remove(1));
+        Assertions.assertTrue(table.put(new TestEntry(3)));
+    }
+
+    @Test
+    public void test_request_without_response() {
+        var table = new PendingRequestTable<TestEntry>(4);
+        var lost = new TestEntry(0);
+        Assertions.assertTrue(table.put(lost));
+        // requests which reuse the slot of the lost one still succeed
+        for (int seqNum = 1; seqNum <= 3 * table.capacity(); seqNum++) {
+            var entry = new TestEntry(seqNum);
+            Assertions.assertTrue(table.put(entry));
+            Assertions.assertEquals(entry, table.get(seqNum));
+            Assertions.assertEquals(2, table.size());
+            Assertions.assertEquals(entry, table.remove(seqNum));
+        }
+        // until the table is full
+        for (int seqNum = 100; seqNum < 100 + table.capacity() - 1; seqNum++)
+            Assertions.assertTrue(table.put(new TestEntry(seqNum)));
+        Assertions.assertFalse(table.put(new TestEntry(200)));
+        Assertions.assertEquals(lost, table.get(0));
+        Assertions.assertTrue(table.remove(lost));
+        Assertions.assertTrue(table.put(new TestEntry(200)));
+        Assertions.assertEquals(200, table.get(200).seqNum());
+    }
+
+    @Test
+    public void test_probe_shrinks() {
+        var table = new PendingRequestTable<TestEntry>(4);
+        var lost = new TestEntry(0);
+        Assertions.assertTrue(table.put(lost));
+        // burst of requests which share the slot of the lost one
+        for (int seqNum = 4; seqNum <= 12; seqNum += 4)
+            Assertions.assertTrue(table.put(new TestEntry(seqNum)));
+        Assertions.assertEquals(3, table.maxProbe());
+        for (int seqNum = 4; seqNum <= 12; seqNum += 4)
+            Assertions.assertNotNull(table.remove(seqNum));
+        Assertions.assertEquals(0, table.maxProbe());
+        // while lost request stays pending, others complete and lookups keep probing at most
+        // one extra slot
+        for (int seqNum = 13; seqNum < 1000; seqNum++) {
+            var entry = new TestEntry(seqNum);
+            Assertions.assertTrue(table.put(entry));
+            Assertions.assertTrue(table.maxProbe() <= 1);
+            Assertions.assertEquals(entry, table.remove(seqNum));
+            Assertions.assertEquals(0, table.maxProbe());
+        }
+        Assertions.assertEquals(lost, table.get(0));
+        table.removeAll(entry -> {});
+        Assertions.assertEquals(0, table.maxProbe());
+    }
+
+    @Test
+    public void test_removeAll() {
+        var table = new PendingRequestTable<TestEntry>(4);
+        table.put(new TestEntry(1));
+        table.put(new TestEntry(2));
+        var removed = new ArrayList<TestEntry>();
+        table.removeAll(removed::add);
+        Assertions.assertEquals("[TestEntry[seqNum=1], TestEntry[seqNum=2]]", removed.toString());
+        Assertions.assertNull(table.get(1));
+        Assertions.assertEquals(0, table.size());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.Priority;
+import pinorobotics.jros2services.JRos2ServicesConfiguration;
+import pinorobotics.jros2services.impl.ClientId;
+import pinorobotics.jros2services.impl.PriorityLanes;
+import pinorobotics.jros2services.impl.RequestTask;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PriorityLanesTests {
+
+    private static final ClientId CLIENT = ClientId.fromIdentity(new byte[SampleIdentity.SIZE]);
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void test_limits() {
+        var lanes =
+                new PriorityLanes(
+                        new JRos2ServicesConfiguration.Builder()
+                                .maxConcurrentRequests(10)
+                                .reservedRequests(Priority.HIGH, 3)
+                                .reservedRequests(Priority.NORMAL, 2)
+                                .build());
+        Assertions.assertEquals(10, lanes.getLimit(Priority.HIGH));
+        Assertions.assertEquals(7, lanes.getLimit(Priority.NORMAL));
+        Assertions.assertEquals(5, lanes.getLimit(Priority.LOW));
+    }
+
+    @Test
+    public void test_reservations_leave_capacity() {
+        Assertions.assertThrows(
+                Exception.class,
+                () ->
+                        new JRos2ServicesConfiguration.Builder()
+                                .maxConcurrentRequests(2)
+                                .reservedRequests(Priority.HIGH, 2)
+                                .build());
+    }
+
+    @Test
+    public void test_high_priority_uses_reserved_capacity() throws Exception {
+        var lanes =
+                new PriorityLanes(
+                        new JRos2ServicesConfiguration.Builder()
+                                .maxConcurrentRequests(2)
+                                .reservedRequests(Priority.HIGH, 1)
+                                .build());
+        var low = lanes.newLaneExecutor(Priority.LOW, Executors.newCachedThreadPool());
+        var high = lanes.newLaneExecutor(Priority.HIGH, Executors.newCachedThreadPool());
+        var lowBlocker = new CountDownLatch(1);
+        var lowStarted = new CountDownLatch(1);
+        low.execute(block("low1", lowStarted, lowBlocker));
+        lowStarted.await();
+        // low priority flood does not get past its own limit
+        low.execute(record("low2"));
+        low.execute(record("low3"));
+        Assertions.assertEquals(2, lanes.getQueuedCount(Priority.LOW));
+        // high priority runs right away on the reserved capacity
+        var highDone = new CountDownLatch(1);
+        high.execute(block("high1", new CountDownLatch(1), new CountDownLatch(0), highDone));
+        Assertions.assertTrue(highDone.await(1, TimeUnit.SECONDS));
+        lowBlocker.countDown();
+        shutdown(low, high);
+        Assertions.assertEquals(List.of("high1", "low1", "low2", "low3"), executed);
+    }
+
+    @Test
+    public void test_high_priority_goes_first() throws Exception {
+        var lanes =
+                new PriorityLanes(
+                        new JRos2ServicesConfiguration.Builder().maxConcurrentRequests(1).build());
+        var low = lanes.newLaneExecutor(Priority.LOW, Executors.newCachedThreadPool());
+        var high = lanes.newLaneExecutor(Priority.HIGH, Executors.newCachedThreadPool());
+        var blocker = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        low.execute(block("low1", started, blocker));
+        started.await();
+        low.execute(record("low2"));
+        high.execute(record("high1"));
+        Assertions.assertEquals(1, lanes.getQueuedCount(Priority.HIGH));
+        blocker.countDown();
+        shutdown(low, high);
+        Assertions.assertEquals(List.of("low1", "high1", "low2"), executed);
+    }
+
+    @Test
+    public void test_delegate_rejects() throws Exception {
+        var lanes =
+                new PriorityLanes(
+                        new JRos2ServicesConfiguration.Builder().maxConcurrentRequests(1).build());
+        var delegate = Executors.newSingleThreadExecutor();
+        var low = lanes.newLaneExecutor(Priority.LOW, delegate);
+        var blocker = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        var done = new CountDownLatch(1);
+        var shed = new CountDownLatch(1);
+        low.execute(block("low1", started, blocker, done));
+        started.await();
+        low.execute(new RequestTask(CLIENT, record("low2"), shed::countDown));
+        delegate.shutdown();
+        blocker.countDown();
+        done.await();
+        // queued task is shed and its capacity is released
+        Assertions.assertTrue(shed.await(1, TimeUnit.SECONDS));
+        Assertions.assertThrows(
+                RejectedExecutionException.class, () -> low.execute(record("low3")));
+        Assertions.assertEquals(0, lanes.getQueuedCount(Priority.LOW));
+        Assertions.assertEquals(List.of("low1"), executed);
+    }
+
+    private Runnable record(String name) {
+        return () -> executed.add(name);
+    }
+
+    private Runnable block(String name, CountDownLatch started, CountDownLatch blocker) {
+        return block(name, started, blocker, new CountDownLatch(1));
+    }
+
+    private Runnable block(
+            String name, CountDownLatch started, CountDownLatch blocker, CountDownLatch done) {
+        return () -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            executed.add(name);
+            done.countDown();
+        };
+    }
+
+    private void shutdown(ExecutorService... executors) throws InterruptedException {
+        for (var executor : executors) executor.shutdown();
+        for (var executor : executors)
+            Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import io.opentelemetry.api.common.Attributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.ReplySequencer;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ReplySequencerTests {
+
+    private static final byte[] GUID_A = new byte[SampleIdentity.GUID_SIZE];
+    private static final byte[] GUID_B = new byte[SampleIdentity.GUID_SIZE];
+
+    static {
+        GUID_B[15] = 1;
+    }
+
+    private final List<String> published = new ArrayList<>();
+
+    @Test
+    public void test_order_per_client() {
+        var sequencer = new ReplySequencer(10, this::publish, Attributes.empty());
+        for (int i = 1; i <= 3; i++) {
+            Assertions.assertTrue(sequencer.register(identity(GUID_A, i)));
+            Assertions.assertTrue(sequencer.register(identity(GUID_B, i)));
+        }
+        Assertions.assertFalse(sequencer.register(identity(GUID_A, 1)));
+        sequencer.complete(identity(GUID_A, 3), reply("a3"));
+        sequencer.complete(identity(GUID_A, 2), reply("a2"));
+        // other clients are not blocked
+        sequencer.complete(identity(GUID_B, 1), reply("b1"));
+        Assertions.assertEquals(List.of("b1"), published);
+        Assertions.assertEquals(2, sequencer.getWaitingCount());
+        // failed request does not hold later replies
+        sequencer.cancel(identity(GUID_A, 1));
+        Assertions.assertEquals(List.of("b1", "a2", "a3"), published);
+        Assertions.assertEquals(0, sequencer.getWaitingCount());
+    }
+
+    @Test
+    public void test_full_buffer() {
+        var sequencer = new ReplySequencer(1, this::publish, Attributes.empty());
+        for (int i = 1; i <= 3; i++) sequencer.register(identity(GUID_A, i));
+        sequencer.complete(identity(GUID_A, 2), reply("a2"));
+        Assertions.assertTrue(published.isEmpty());
+        // buffer is full, slowest request is not waited for anymore
+        sequencer.complete(identity(GUID_A, 3), reply("a3"));
+        Assertions.assertEquals(List.of("a2", "a3"), published);
+        sequencer.complete(identity(GUID_A, 1), reply("a1"));
+        Assertions.assertEquals(List.of("a2", "a3", "a1"), published);
+    }
+
+    @Test
+    public void test_publish_outside_of_lock() {
+        var sequencerRef = new AtomicReference<ReplySequencer>();
+        var sequencer =
+                new ReplySequencer(
+                        10,
+                        reply -> {
+                            publish(reply);
+                            // other threads are not blocked while replies are published
+                            CompletableFuture.runAsync(
+                                            () -> sequencerRef.get().register(identity(GUID_B, 1)))
+                                    .orTimeout(1, TimeUnit.SECONDS)
+                                    .join();
+                        },
+                        Attributes.empty());
+        sequencerRef.set(sequencer);
+        sequencer.register(identity(GUID_A, 1));
+        sequencer.complete(identity(GUID_A, 1), reply("a1"));
+        Assertions.assertEquals(List.of("a1"), published);
+    }
+
+    private void publish(RtpsTalkDataMessage reply) {
+        published.add(new String(reply.data().get()));
+    }
+
+    private RtpsTalkDataMessage reply(String text) {
+        return new RtpsTalkDataMessage(text.getBytes());
+    }
+
+    private byte[] identity(byte[] guid, long seqNum) {
+        return new SampleIdentity(guid, seqNum).toByteArray();
+    }
+}
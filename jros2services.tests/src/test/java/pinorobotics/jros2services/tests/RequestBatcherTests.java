@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.HashedWheelTimer;
+import pinorobotics.jros2services.impl.RequestBatcher;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class RequestBatcherTests {
+
+    private static final HashedWheelTimer TIMER =
+            new HashedWheelTimer("test-timer", Duration.ofMillis(1), 64);
+
+    private final LinkedBlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+
+    @Test
+    public void test_complete_by_size() throws Exception {
+        var batcher = newBatcher(3, Duration.ofHours(1));
+        for (int i = 1; i <= 7; i++) batcher.add(i);
+        Assertions.assertEquals(List.of(1, 2, 3), batches.poll());
+        Assertions.assertEquals(List.of(4, 5, 6), batches.poll());
+        Assertions.assertNull(batches.poll());
+        batcher.flush();
+        Assertions.assertEquals(List.of(7), batches.poll());
+    }
+
+    @Test
+    public void test_complete_by_delay() throws Exception {
+        var batcher = newBatcher(10, Duration.ofMillis(50));
+        batcher.add(1);
+        batcher.add(2);
+        Assertions.assertEquals(List.of(1, 2), batches.poll(1, TimeUnit.SECONDS));
+        batcher.add(3);
+        Assertions.assertEquals(List.of(3), batches.poll(1, TimeUnit.SECONDS));
+        Assertions.assertNull(batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private RequestBatcher<Integer> newBatcher(int maxBatchSize, Duration maxBatchDelay) {
+        return new RequestBatcher<>(
+                TIMER, maxBatchSize, maxBatchDelay, batches::add, Attributes.empty());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.RequestKey;
+import pinorobotics.jros2services.impl.ResponseCache;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponseCacheTests {
+
+    @Test
+    public void test_lru() {
+        var cache = new ResponseCache(2, Duration.ofMinutes(1));
+        cache.put(key(1), new byte[] {1});
+        cache.put(key(2), new byte[] {2});
+        // make 1 recently used
+        Assertions.assertArrayEquals(new byte[] {1}, cache.get(key(1)));
+        cache.put(key(3), new byte[] {3});
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNull(cache.get(key(2)));
+        Assertions.assertArrayEquals(new byte[] {1}, cache.get(key(1)));
+        Assertions.assertArrayEquals(new byte[] {3}, cache.get(key(3)));
+    }
+
+    @Test
+    public void test_ttl() throws InterruptedException {
+        var cache = new ResponseCache(2, Duration.ofMillis(50));
+        cache.put(key(1), new byte[] {1});
+        Assertions.assertNotNull(cache.get(key(1)));
+        Thread.sleep(100);
+        Assertions.assertNull(cache.get(key(1)));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    private RequestKey key(int value) {
+        return new RequestKey(new byte[] {0, (byte) value});
+    }
+}
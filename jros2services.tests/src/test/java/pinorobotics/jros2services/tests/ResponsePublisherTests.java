@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.ResponsePublisherPool;
+import pinorobotics.rtpstalk.messages.Parameters;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponsePublisherTests {
+
+    @Test
+    public void test_drop_when_full() {
+        try (var pool = new ResponsePublisherPool(1);
+                var publisher = pool.newPublisher(2, Duration.ofMillis(10), Attributes.empty())) {
+            // writer which never accepts any responses
+            publisher.subscribe(
+                    new Subscriber<>() {
+                        @Override
+                        public void onSubscribe(Subscription subscription) {}
+
+                        @Override
+                        public void onNext(RtpsTalkDataMessage item) {}
+
+                        @Override
+                        public void onError(Throwable throwable) {}
+
+                        @Override
+                        public void onComplete() {}
+                    });
+            var message = new RtpsTalkDataMessage(new Parameters(), new byte[0]);
+            var publishedCount = 0;
+            for (int i = 0; i < 10; i++) if (publisher.publish(message)) publishedCount++;
+            Assertions.assertEquals(2, publishedCount);
+        }
+    }
+}
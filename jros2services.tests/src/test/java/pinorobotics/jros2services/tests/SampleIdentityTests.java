@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentityTemplate;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class SampleIdentityTests {
+
+    private static final byte[] GUID = new byte[SampleIdentity.GUID_SIZE];
+
+    static {
+        for (int i = 0; i < GUID.length; i++) GUID[i] = (byte) (i + 1);
+    }
+
+    static Stream<Long> dataProvider() {
+        return Stream.of(
+                0L,
+                1L,
+                (1L << 31) - 1,
+                1L << 31,
+                (1L << 32) - 1,
+                1L << 32,
+                (5L << 40) | 0xFFFFFFFFL);
+    }
+
+    @ParameterizedTest
+    @MethodSource("dataProvider")
+    public void test_round_trip(long seqNum) {
+        var identity = new SampleIdentity(GUID, seqNum).toByteArray();
+        Assertions.assertEquals(SampleIdentity.SIZE, identity.length);
+        Assertions.assertEquals(seqNum, SampleIdentity.readSeqNum(identity));
+        var decoded = SampleIdentity.valueOf(identity);
+        Assertions.assertArrayEquals(GUID, decoded.writerGuid());
+        Assertions.assertEquals(seqNum, decoded.seqNum());
+        Assertions.assertArrayEquals(
+                identity, new SampleIdentityTemplate(GUID).newIdentity(seqNum));
+    }
+
+    /** Sequence number should be encoded as DDS SequenceNumber_t { int32 high; uint32 low; } */
+    @Test
+    public void test_seqNum_layout() {
+        var identity = new SampleIdentity(GUID, (3L << 32) | 0x80000001L).toByteArray();
+        Assertions.assertArrayEquals(
+                new byte[] {3, 0, 0, 0, 1, 0, 0, (byte) 0x80},
+                Arrays.copyOfRange(identity, SampleIdentity.GUID_SIZE, identity.length));
+    }
+
+    @Test
+    public void test_template_returns_new_arrays() {
+        var template = new SampleIdentityTemplate(GUID);
+        var a = template.newIdentity(1);
+        var b = template.newIdentity(2);
+        Assertions.assertNotSame(a, b);
+        Assertions.assertEquals(1, SampleIdentity.readSeqNum(a));
+        Assertions.assertEquals(2, SampleIdentity.readSeqNum(b));
+    }
+
+    @Test
+    public void test_template_parameters() {
+        var parameters = new SampleIdentityTemplate(GUID).newParameters(7);
+        var identity = parameters.getParameters().get(DdsRpcUtils.FASTDDS_SAMPLE_IDENTITY_KEY);
+        Assertions.assertEquals(1, parameters.getParameters().size());
+        Assertions.assertArrayEquals(new SampleIdentity(GUID, 7).toByteArray(), identity);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jroscommon.RosName;
+import id.jrosmessages.Message;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+import pinorobotics.jrosservices.msgs.ServiceDefinition;
+import pinorobotics.rtpstalk.messages.Parameters;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.messages.UserParameterId;
+
+/**
+ * Loopback RTPS clients which let tests send requests to the service as if they came from the
+ * remote client, and collect all responses published by the service.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ServiceLoopbackObjectsFactory<R extends Message, A extends Message>
+        extends LoopbackObjectsFactory {
+
+    /** Response published by the service */
+    public record Response<A>(SampleIdentity identity, A message) {}
+
+    private static final byte[] CLIENT_GUID = new byte[SampleIdentity.GUID_SIZE];
+
+    private final Ros2MessageSerializationUtils serializationUtils =
+            new Ros2MessageSerializationUtils();
+    private final LinkedBlockingQueue<Response<A>> responses = new LinkedBlockingQueue<>();
+    private final ServiceDefinition<R, A> serviceDefinition;
+    private final String requestsTopic;
+    private final String responsesTopic;
+
+    public ServiceLoopbackObjectsFactory(
+            ServiceDefinition<R, A> serviceDefinition, String serviceName) {
+        this.serviceDefinition = serviceDefinition;
+        var nameMapper = new DdsNameMapper();
+        var rosName = new RosName(serviceName);
+        requestsTopic =
+                nameMapper.asFullyQualifiedDdsTopicName(
+                        rosName, serviceDefinition.getServiceRequestMessage());
+        responsesTopic =
+                nameMapper.asFullyQualifiedDdsTopicName(
+                        rosName, serviceDefinition.getServiceResponseMessage());
+    }
+
+    /** Deliver request with the given sequence number to the service */
+    public void sendRequest(long seqNum, R request) {
+        var identity = new SampleIdentity(CLIENT_GUID, seqNum).toByteArray();
+        deliver(
+                requestsTopic,
+                new RtpsTalkDataMessage(
+                        new Parameters(
+                                Map.of(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY, identity)),
+                        serializationUtils.write(request)));
+    }
+
+    /**
+     * @return next response of the service or null if there is none within the timeout
+     */
+    public Response<A> takeResponse(Duration timeout) throws InterruptedException {
+        return responses.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void onPublished(String topic, RtpsTalkDataMessage message) {
+        if (topic.equals(responsesTopic)) {
+            var identity =
+                    message.userInlineQos()
+                            .get()
+                            .getParameters()
+                            .get(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY);
+            responses.add(
+                    new Response<>(
+                            SampleIdentity.valueOf(identity),
+                            serializationUtils.read(
+                                    message.data().get(),
+                                    serviceDefinition
+                                            .getServiceResponseMessage()
+                                            .getMessageClass())));
+        }
+        super.onPublished(topic, message);
+    }
+}
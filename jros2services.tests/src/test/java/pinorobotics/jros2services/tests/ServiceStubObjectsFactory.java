@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jroscommon.RosName;
+import id.jrosmessages.Message;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import pinorobotics.jrosservices.msgs.ServiceDefinition;
+import pinorobotics.rtpstalk.messages.Parameters;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+import pinorobotics.rtpstalk.messages.UserParameterId;
+
+/**
+ * Loopback RTPS clients where instead of the service the stub handler replies to the requests of
+ * the service clients.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ServiceStubObjectsFactory<R extends Message, A extends Message>
+        extends LoopbackObjectsFactory {
+
+    private final Ros2MessageSerializationUtils serializationUtils =
+            new Ros2MessageSerializationUtils();
+    private final AtomicInteger requestsCount = new AtomicInteger();
+    private final ServiceDefinition<R, A> serviceDefinition;
+    private final String requestsTopic;
+    private final String responsesTopic;
+    private final Function<R, A> handler;
+
+    /**
+     * @param handler produces response for each request, when it returns null the request is left
+     *     without response
+     */
+    public ServiceStubObjectsFactory(
+            ServiceDefinition<R, A> serviceDefinition, String serviceName, Function<R, A> handler) {
+        this.serviceDefinition = serviceDefinition;
+        this.handler = handler;
+        var nameMapper = new DdsNameMapper();
+        var rosName = new RosName(serviceName);
+        requestsTopic =
+                nameMapper.asFullyQualifiedDdsTopicName(
+                        rosName, serviceDefinition.getServiceRequestMessage());
+        responsesTopic =
+                nameMapper.asFullyQualifiedDdsTopicName(
+                        rosName, serviceDefinition.getServiceResponseMessage());
+    }
+
+    /**
+     * @return number of requests received by the stub
+     */
+    public int getRequestsCount() {
+        return requestsCount.get();
+    }
+
+    @Override
+    protected void onPublished(String topic, RtpsTalkDataMessage message) {
+        if (!topic.equals(requestsTopic)) {
+            super.onPublished(topic, message);
+            return;
+        }
+        requestsCount.incrementAndGet();
+        var response =
+                handler.apply(
+                        serializationUtils.read(
+                                message.data().get(),
+                                serviceDefinition.getServiceRequestMessage().getMessageClass()));
+        if (response == null) return;
+        var identity =
+                message.userInlineQos()
+                        .get()
+                        .getParameters()
+                        .get(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY);
+        deliver(
+                responsesTopic,
+                new RtpsTalkDataMessage(
+                        new Parameters(
+                                Map.of(UserParameterId.PID_RELATED_SAMPLE_IDENTITY, identity)),
+                        serializationUtils.write(response)));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.impl.ShardedExecutor;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ShardedExecutorTests {
+
+    @Test
+    public void test_order_per_key() throws Exception {
+        var executor =
+                new ShardedExecutor(
+                        List.of(
+                                Executors.newSingleThreadExecutor(),
+                                Executors.newSingleThreadExecutor()));
+        var keyA = 1;
+        var keyB = 2;
+        Assertions.assertNotEquals(executor.shardOf(keyA), executor.shardOf(keyB));
+        var blocker = new CountDownLatch(1);
+        var completedB = new CountDownLatch(1);
+        var executedA = new ConcurrentLinkedQueue<Integer>();
+        executor.execute(keyA, () -> await(blocker));
+        for (int i = 0; i < 100; i++) {
+            var n = i;
+            executor.execute(keyA, () -> executedA.add(n));
+        }
+        // other keys are not blocked
+        executor.execute(keyB, completedB::countDown);
+        Assertions.assertTrue(completedB.await(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(executedA.isEmpty());
+        blocker.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(IntStream.range(0, 100).boxed().toList(), List.copyOf(executedA));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.tests;
+
+import id.xfunction.PreconditionException;
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.SheddingPolicy;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jros2services.impl.ClientId;
+import pinorobotics.jros2services.impl.RequestTask;
+import pinorobotics.jros2services.impl.SheddingExecutor;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class SheddingExecutorTests {
+
+    private final List<Integer> executed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void test_reject_newest() throws Exception {
+        var executor =
+                newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .maxConcurrentRequests(1)
+                                .maxQueuedRequests(1)
+                                .sheddingPolicy(SheddingPolicy.REJECT_NEWEST));
+        runBlocked(executor, Duration.ZERO, 1, 2, 3);
+        Assertions.assertEquals(List.of(1, 2), executed);
+    }
+
+    @Test
+    public void test_drop_oldest() throws Exception {
+        var executor =
+                newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .maxConcurrentRequests(1)
+                                .maxQueuedRequests(2)
+                                .sheddingPolicy(SheddingPolicy.DROP_OLDEST));
+        runBlocked(executor, Duration.ZERO, 1, 2, 3, 4);
+        Assertions.assertEquals(List.of(1, 3, 4), executed);
+    }
+
+    @Test
+    public void test_max_queue_time() throws Exception {
+        var executor =
+                newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .maxConcurrentRequests(1)
+                                .maxQueueTime(Duration.ofMillis(50)));
+        runBlocked(executor, Duration.ofMillis(100), 1, 2, 3);
+        Assertions.assertEquals(List.of(1), executed);
+    }
+
+    @Test
+    public void test_fair_scheduling() throws Exception {
+        var executor =
+                newExecutor(
+                        new JRos2ServiceConfiguration.Builder()
+                                .maxConcurrentRequests(1)
+                                .fairScheduling(true));
+        // client 1 sends burst of requests before client 2
+        runBlocked(executor, Duration.ZERO, 11, 12, 13, 14, 21);
+        // client 1 was charged for the time of blocked request 11 so client 2 goes next
+        Assertions.assertEquals(List.of(11, 21, 12, 13, 14), executed);
+    }
+
+    @Test
+    public void test_fair_scheduling_without_limit() {
+        // without the limit requests are never queued so there is nothing to schedule
+        Assertions.assertThrows(
+                PreconditionException.class,
+                new JRos2ServiceConfiguration.Builder().fairScheduling(true)::build);
+    }
+
+    @Test
+    public void test_delegate_rejects() throws Exception {
+        // delegate runs single task at a time and rejects the rest
+        var delegate = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        var executor =
+                new SheddingExecutor(
+                        delegate,
+                        new JRos2ServiceConfiguration.Builder().maxConcurrentRequests(2).build(),
+                        Attributes.empty());
+        var clientId = ClientId.fromIdentity(new byte[SampleIdentity.SIZE]);
+        var isBlocked = new CountDownLatch(1);
+        var shed = new CopyOnWriteArrayList<Integer>();
+        executor.execute(
+                new RequestTask(
+                        clientId,
+                        () -> {
+                            try {
+                                isBlocked.await();
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }));
+        executor.execute(new RequestTask(clientId, () -> executed.add(2), () -> shed.add(2)));
+        Assertions.assertEquals(List.of(2), shed);
+        isBlocked.countDown();
+        // rejected task does not hold its slot
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(), executed);
+    }
+
+    private SheddingExecutor newExecutor(JRos2ServiceConfiguration.Builder configuration) {
+        return new SheddingExecutor(
+                Executors.newCachedThreadPool(), configuration.build(), Attributes.empty());
+    }
+
+    /**
+     * Submit tasks while first of them is blocked for the given time and wait for all of the tasks
+     * to complete
+     */
+    private void runBlocked(SheddingExecutor executor, Duration blockTime, int... tasks)
+            throws Exception {
+        var isBlocked = new CountDownLatch(1);
+        for (var id : tasks) {
+            // first digit of the task id is its client
+            var identity = new byte[SampleIdentity.SIZE];
+            identity[0] = (byte) (id / 10);
+            executor.execute(
+                    new RequestTask(
+                            ClientId.fromIdentity(identity),
+                            () -> {
+                                executed.add(id);
+                                try {
+                                    isBlocked.await();
+                                } catch (InterruptedException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }));
+        }
+        Thread.sleep(blockTime.toMillis());
+        isBlocked.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+}
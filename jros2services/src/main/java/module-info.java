@@ -39,9 +39,11 @@ module jros2services {
     requires rtpstalk;
     requires id.xfunction;
     requires jrosmessages;
+    requires id.kineticstreamer;
     requires io.opentelemetry.api;
 
     exports pinorobotics.jros2services;
+    exports pinorobotics.jros2services.metrics;
     exports pinorobotics.jros2services.impl to
             jros2services.tests;
     exports pinorobotics.jros2services.impl.ddsrpc to
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.jrosmessages.Message;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service handler which executes incoming ROS2 requests asynchronously.
+ *
+ * <p>Suits the handlers which spend most of the time waiting for other ROS services or remote
+ * stores. Handler thread is released as soon as the future is returned and the response is sent
+ * when the future completes, so many slow requests can be served by few threads.
+ *
+ * <p>Supposed to be implemented by the users.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@FunctionalInterface
+public interface AsyncServiceHandler<R extends Message, A extends Message> {
+
+    /**
+     * @return future which completes with the response. If it completes exceptionally the request
+     *     is left without response.
+     */
+    CompletableFuture<A> execute(R request) throws Exception;
+}
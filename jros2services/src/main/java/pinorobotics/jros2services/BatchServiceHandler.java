@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.jrosmessages.Message;
+import java.util.List;
+
+/**
+ * Service handler which executes incoming ROS2 requests in batches.
+ *
+ * <p>Suits the handlers which are cheaper per request when they process many of them at once (model
+ * inference, database lookups etc). Size of the batches and how long requests wait for them is
+ * controlled by {@link JRos2ServiceConfiguration#maxBatchSize()} and {@link
+ * JRos2ServiceConfiguration#maxBatchDelay()}.
+ *
+ * <p>Supposed to be implemented by the users.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+@FunctionalInterface
+public interface BatchServiceHandler<R extends Message, A extends Message> {
+
+    /**
+     * @return responses in the same order as requests. If handler throws an exception none of the
+     *     requests in the batch receive a response.
+     */
+    List<A> execute(List<R> requests) throws Exception;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.jrosmessages.Message;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import pinorobotics.jrosservices.JRosServiceClient;
+
+/**
+ * ROS2 Service client
+ *
+ * @see JRos2ServicesFactory Factory for available ROS2 Service client implementations
+ * @param <R> request message type
+ * @param <A> response message type
+ * @author lambdaprime intid@protonmail.com
+ */
+public interface JRos2ServiceClient<R extends Message, A extends Message>
+        extends JRosServiceClient<R, A> {
+
+    /**
+     * Send request to the ROS2 service
+     *
+     * <p>If response is not received within the given timeout, the returned future is completed
+     * exceptionally with {@link TimeoutException}. This overrides {@link
+     * JRos2ServiceClientConfiguration#defaultTimeout()}.
+     */
+    CompletableFuture<A> sendRequestAsync(R request, Duration timeout);
+
+    /**
+     * Convenience method which sends each of the requests to the ROS2 service same as {@link
+     * #sendRequestAsync(Message, Duration)} does.
+     *
+     * <p>Requests are still serialized and submitted to the RTPS publisher one by one. Comparing to
+     * the loop over {@link #sendRequestAsync(Message, Duration)}, it only saves the per call
+     * overhead: sequence numbers of all requests are reserved at once and all of them share single
+     * timeout.
+     *
+     * @return futures for each of the requests in the same order as requests
+     */
+    List<CompletableFuture<A>> sendAllAsync(List<R> requests);
+
+    /**
+     * Send each of the requests to the ROS2 service with given timeout
+     *
+     * @see #sendAllAsync(List)
+     * @see #sendRequestAsync(Message, Duration)
+     */
+    List<CompletableFuture<A>> sendAllAsync(List<R> requests, Duration timeout);
+
+    /** Close client and complete all pending requests exceptionally */
+    @Override
+    void close();
+}
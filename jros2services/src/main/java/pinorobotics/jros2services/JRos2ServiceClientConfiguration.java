@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.xfunction.Preconditions;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Configuration of ROS2 Service clients
+ *
+ * @param maxPendingRequests maximum number of requests which client can keep waiting for the
+ *     response at the same time. It is rounded up to the nearest power of two.
+ * @param defaultTimeout how long client waits for the response before completing the request
+ *     exceptionally with {@link TimeoutException}. When empty, requests wait until client is
+ *     closed. Without timeout, requests whose response is lost stay pending and hold their in
+ *     flight slots forever, so once all of them are taken new requests are handled only according
+ *     to the {@link #overflowPolicy()} ({@link OverflowPolicy#WAIT} waits forever).
+ * @param maxInFlightRequests maximum number of requests which client sends to the service without
+ *     receiving the responses for them. Requests which exceed it are handled according to the
+ *     {@link #overflowPolicy()}. It cannot exceed {@link #maxPendingRequests()}, which is also its
+ *     default value.
+ * @param overflowPolicy what to do with the request when client has {@link #maxInFlightRequests()}
+ *     in flight already
+ * @param responseCacheSize maximum number of responses which client caches. Least recently used
+ *     responses are evicted first. Caching should be enabled only for the services which are
+ *     idempotent (always return same response for the same request). Requests are matched by their
+ *     serialized form and cache hits are completed without sending anything to the service. By
+ *     default caching is disabled (size 0).
+ * @param responseCacheTtl how long cached responses stay valid
+ * @param coalesceRequests when enabled, requests identical (in serialized form) to the ones which
+ *     are already in flight are not sent. Instead they are completed together with the request in
+ *     flight (including its timeout) and receive the same response message instance, which should
+ *     not be modified. Requests in flight are then completed only by the response or timeout and
+ *     cancelling the futures returned to the callers does not cancel them. Coalescing requires
+ *     {@link #defaultTimeout()}, so that requests whose response is lost do not keep the callers
+ *     attached to them forever. When the timeout of the attached caller expires, the request in
+ *     flight stops accepting new callers.
+ * @param responsesPrefetch number of responses which client requests from RTPS ahead of processing
+ *     them. More responses are requested each time half of them are processed. Clients of the same
+ *     service created by one factory share single subscription to the responses, which uses the
+ *     value of the first of them.
+ * @param localDispatch how requests are dispatched to the service which runs in the same JVM, see
+ *     {@link LocalDispatch}
+ * @author lambdaprime intid@protonmail.com
+ */
+public record JRos2ServiceClientConfiguration(
+        int maxPendingRequests,
+        Optional<Duration> defaultTimeout,
+        int maxInFlightRequests,
+        OverflowPolicy overflowPolicy,
+        int responseCacheSize,
+        Duration responseCacheTtl,
+        boolean coalesceRequests,
+        int responsesPrefetch,
+        LocalDispatch localDispatch) {
+
+    /** Policy applied to the requests which exceed {@link #maxInFlightRequests()} */
+    public enum OverflowPolicy {
+        /**
+         * Request is queued and sent once any of the requests in flight completes. Caller is not
+         * blocked and the time spent in the queue counts towards the request timeout.
+         */
+        WAIT,
+
+        /** Request is completed exceptionally right away */
+        FAIL,
+
+        /**
+         * Oldest request in flight is completed exceptionally to free the space and the new request
+         * is sent instead
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * Requests to the service created by the same {@link JRos2ServicesFactory} for the same ROS2
+     * domain can be passed to its handler directly, without sending them over RTPS. Such requests
+     * are still executed by the executor of the service, but they bypass the rest of the request
+     * path: in flight limits, {@link OverflowPolicy}, caching and coalescing of the requests on the
+     * client side, deduplication and order of the replies on the service side are not applied to
+     * them. That is why it is disabled by default. Service keeps receiving requests of other
+     * clients over RTPS as usual.
+     *
+     * <p>When local request times out, it is not executed if it still waits in the queue of the
+     * service.
+     */
+    public enum LocalDispatch {
+        /** Requests are always sent over RTPS */
+        DISABLED,
+
+        /**
+         * Requests and responses are passed as copies, so that neither client nor service can
+         * modify the messages of the other one
+         */
+        COPY,
+
+        /**
+         * Request and response messages are passed as is. It is the fastest option, but both client
+         * and service should not modify the messages after passing them to each other.
+         */
+        SHARED
+    }
+
+    public JRos2ServiceClientConfiguration {
+        Preconditions.isTrue(maxPendingRequests > 0, "maxPendingRequests must be positive");
+        Preconditions.isTrue(maxInFlightRequests > 0, "maxInFlightRequests must be positive");
+        Preconditions.isTrue(
+                maxInFlightRequests <= maxPendingRequests,
+                "maxInFlightRequests must not exceed maxPendingRequests");
+        Preconditions.notNull(overflowPolicy, "overflowPolicy is missing");
+        Preconditions.isTrue(responseCacheSize >= 0, "responseCacheSize must not be negative");
+        Preconditions.isTrue(
+                !responseCacheTtl.isNegative() && !responseCacheTtl.isZero(),
+                "responseCacheTtl must be positive");
+        Preconditions.isTrue(responsesPrefetch > 0, "responsesPrefetch must be positive");
+        Preconditions.notNull(localDispatch, "localDispatch is missing");
+        Preconditions.isTrue(
+                !coalesceRequests || defaultTimeout.isPresent(),
+                "coalesceRequests requires defaultTimeout");
+        defaultTimeout.ifPresent(
+                timeout ->
+                        Preconditions.isTrue(
+                                !timeout.isNegative() && !timeout.isZero(),
+                                "defaultTimeout must be positive"));
+    }
+
+    /**
+     * @author lambdaprime intid@protonmail.com
+     */
+    public static class Builder {
+        public static final int DEFAULT_MAX_PENDING_REQUESTS = 1024;
+        public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.WAIT;
+        public static final Duration DEFAULT_RESPONSE_CACHE_TTL = Duration.ofMinutes(1);
+        public static final int DEFAULT_RESPONSES_PREFETCH = 32;
+        public static final LocalDispatch DEFAULT_LOCAL_DISPATCH = LocalDispatch.DISABLED;
+
+        private int maxPendingRequests = DEFAULT_MAX_PENDING_REQUESTS;
+        private Optional<Duration> defaultTimeout = Optional.empty();
+        private Optional<Integer> maxInFlightRequests = Optional.empty();
+        private OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+        private int responseCacheSize;
+        private Duration responseCacheTtl = DEFAULT_RESPONSE_CACHE_TTL;
+        private boolean coalesceRequests;
+        private int responsesPrefetch = DEFAULT_RESPONSES_PREFETCH;
+        private LocalDispatch localDispatch = DEFAULT_LOCAL_DISPATCH;
+
+        public Builder maxPendingRequests(int maxPendingRequests) {
+            this.maxPendingRequests = maxPendingRequests;
+            return this;
+        }
+
+        public Builder defaultTimeout(Duration defaultTimeout) {
+            this.defaultTimeout = Optional.of(defaultTimeout);
+            return this;
+        }
+
+        public Builder maxInFlightRequests(int maxInFlightRequests) {
+            this.maxInFlightRequests = Optional.of(maxInFlightRequests);
+            return this;
+        }
+
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder responseCacheSize(int responseCacheSize) {
+            this.responseCacheSize = responseCacheSize;
+            return this;
+        }
+
+        public Builder responseCacheTtl(Duration responseCacheTtl) {
+            this.responseCacheTtl = responseCacheTtl;
+            return this;
+        }
+
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        public Builder responsesPrefetch(int responsesPrefetch) {
+            this.responsesPrefetch = responsesPrefetch;
+            return this;
+        }
+
+        public Builder localDispatch(LocalDispatch localDispatch) {
+            this.localDispatch = localDispatch;
+            return this;
+        }
+
+        public JRos2ServiceClientConfiguration build() {
+            return new JRos2ServiceClientConfiguration(
+                    maxPendingRequests,
+                    defaultTimeout,
+                    maxInFlightRequests.orElse(maxPendingRequests),
+                    overflowPolicy,
+                    responseCacheSize,
+                    responseCacheTtl,
+                    coalesceRequests,
+                    responsesPrefetch,
+                    localDispatch);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.xfunction.Preconditions;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Configuration of ROS2 Services
+ *
+ * <p>Requests which exceed the limits are shed. ROS2 services have no way to report errors to the
+ * clients, so shed requests do not receive any response and clients are expected to time out on
+ * them.
+ *
+ * @param executionMode threads which execute {@link ServiceHandler}
+ * @param maxConcurrentRequests maximum number of requests which service handler executes at the
+ *     same time. Other requests wait in the queue. By default there is no limit.
+ * @param maxQueuedRequests maximum number of requests which wait in the queue for the handler.
+ *     Requests which exceed it are shed according to the {@link #sheddingPolicy()}.
+ * @param sheddingPolicy which request to shed when queue is full
+ * @param maxQueueTime requests which waited in the queue longer than this are shed instead of being
+ *     executed, since their clients most likely gave up on them already. When empty, requests wait
+ *     as long as needed.
+ * @param fairScheduling when enabled, requests waiting in the queue are scheduled with deficit
+ *     round robin between the clients (identified by the writer GUID of the requests), so that each
+ *     client gets equal share of the handler time. Otherwise requests are executed in the order of
+ *     their arrival. When queue is full, {@link SheddingPolicy#DROP_OLDEST} drops the oldest
+ *     request of the client with the most requests queued. Requests are queued only when {@link
+ *     #maxConcurrentRequests()} is set, so fair scheduling requires it.
+ * @param priority priority of the service requests. Services with different priorities share
+ *     handler capacity of the factory which created them according to {@link
+ *     JRos2ServicesConfiguration#reservedRequests()}.
+ * @param maxBatchSize maximum number of requests passed to {@link BatchServiceHandler} at once
+ * @param maxBatchDelay maximum time the first request of the batch waits for other requests to join
+ *     it, before the batch is passed to {@link BatchServiceHandler} incomplete
+ * @param deduplicationWindowSize maximum number of recent requests which service remembers by their
+ *     sample identity (writer GUID and sequence number), so that their copies (retransmitted by
+ *     RTPS or retried by the clients) are not executed again. Copies of the running requests are
+ *     dropped and copies of the completed ones receive the reply sent to the original request.
+ *     Requests which failed are forgotten. By default deduplication is disabled (size 0).
+ * @param deduplicationWindowBytes maximum size of all serialized replies which service remembers
+ *     for deduplication
+ * @param deduplicationWindowTtl how long service remembers the requests for deduplication
+ * @param responseBufferSize maximum number of responses which wait to be delivered to the RTPS
+ *     writer. Responses are delivered by the threads shared by all services of the factory (see
+ *     {@link JRos2ServicesConfiguration#publisherThreads()}).
+ * @param responseOfferTimeout how long handler threads wait for the space in the responses buffer
+ *     when it is full. Responses which do not fit within it are dropped. Zero means responses are
+ *     dropped right away.
+ * @param requestsPrefetch number of requests which service requests from RTPS ahead of processing
+ *     them. More requests are requested each time half of them are processed.
+ * @param shardCount number of single threaded shards which execute requests of the sharded services
+ *     (see {@link ShardKeyExtractor}). By default there is a shard for each available processor.
+ * @param orderedReplies when enabled, replies to each client (identified by the writer GUID of the
+ *     requests) are sent in the order of its requests, while handlers still execute them in
+ *     parallel. Completed replies wait in the reorder buffer of the client for the replies to the
+ *     earlier requests. Requests which are shed or fail do not hold the later replies. In batch
+ *     services it keeps the order of the replies across the batches which complete in a different
+ *     order.
+ * @param reorderBufferSize maximum number of completed replies which wait in the reorder buffer of
+ *     each client. When it is full, replies stop waiting for the earliest request and its reply is
+ *     sent out of order once it completes.
+ * @author lambdaprime intid@protonmail.com
+ */
+public record JRos2ServiceConfiguration(
+        ExecutionMode executionMode,
+        int maxConcurrentRequests,
+        int maxQueuedRequests,
+        SheddingPolicy sheddingPolicy,
+        Optional<Duration> maxQueueTime,
+        boolean fairScheduling,
+        Priority priority,
+        int maxBatchSize,
+        Duration maxBatchDelay,
+        int deduplicationWindowSize,
+        long deduplicationWindowBytes,
+        Duration deduplicationWindowTtl,
+        int responseBufferSize,
+        Duration responseOfferTimeout,
+        int requestsPrefetch,
+        int shardCount,
+        boolean orderedReplies,
+        int reorderBufferSize) {
+
+    /** Threads which execute {@link ServiceHandler} */
+    public enum ExecutionMode {
+        /**
+         * Each request is executed in the thread from the cached thread pool. New platform thread
+         * is created whenever all existing ones are busy.
+         */
+        THREAD_POOL,
+
+        /**
+         * Each request is executed in a new virtual thread, which suits handlers that block on I/O
+         * (databases, other ROS services etc).
+         *
+         * <p>Virtual threads are available only on Java 21 and later. On older versions service
+         * falls back to {@link #THREAD_POOL}.
+         */
+        VIRTUAL_THREADS
+    }
+
+    /** Policy applied to the requests which exceed {@link #maxQueuedRequests()} */
+    public enum SheddingPolicy {
+        /** New request is shed */
+        REJECT_NEWEST,
+
+        /** Request which waits in the queue for the longest time is shed to free the space */
+        DROP_OLDEST
+    }
+
+    /** Priority of the service requests */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public JRos2ServiceConfiguration {
+        Preconditions.notNull(executionMode, "executionMode is missing");
+        Preconditions.isTrue(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+        Preconditions.isTrue(maxQueuedRequests >= 0, "maxQueuedRequests must not be negative");
+        Preconditions.notNull(sheddingPolicy, "sheddingPolicy is missing");
+        Preconditions.notNull(priority, "priority is missing");
+        Preconditions.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+        Preconditions.isTrue(
+                !maxBatchDelay.isNegative() && !maxBatchDelay.isZero(),
+                "maxBatchDelay must be positive");
+        Preconditions.isTrue(
+                deduplicationWindowSize >= 0, "deduplicationWindowSize must not be negative");
+        Preconditions.isTrue(
+                deduplicationWindowBytes >= 0, "deduplicationWindowBytes must not be negative");
+        Preconditions.isTrue(
+                !deduplicationWindowTtl.isNegative() && !deduplicationWindowTtl.isZero(),
+                "deduplicationWindowTtl must be positive");
+        Preconditions.isTrue(responseBufferSize > 0, "responseBufferSize must be positive");
+        Preconditions.isTrue(
+                !responseOfferTimeout.isNegative(), "responseOfferTimeout must not be negative");
+        Preconditions.isTrue(requestsPrefetch > 0, "requestsPrefetch must be positive");
+        Preconditions.isTrue(shardCount > 0, "shardCount must be positive");
+        Preconditions.isTrue(reorderBufferSize >= 0, "reorderBufferSize must not be negative");
+        Preconditions.isTrue(
+                !fairScheduling || maxConcurrentRequests != Integer.MAX_VALUE,
+                "fairScheduling requires maxConcurrentRequests");
+        maxQueueTime.ifPresent(
+                time ->
+                        Preconditions.isTrue(
+                                !time.isNegative() && !time.isZero(),
+                                "maxQueueTime must be positive"));
+    }
+
+    /**
+     * @return true if any of the limits on the requests are set
+     */
+    public boolean hasLimits() {
+        return maxConcurrentRequests != Integer.MAX_VALUE
+                || maxQueuedRequests != Integer.MAX_VALUE
+                || maxQueueTime.isPresent();
+    }
+
+    /**
+     * @author lambdaprime intid@protonmail.com
+     */
+    public static class Builder {
+        public static final ExecutionMode DEFAULT_EXECUTION_MODE = ExecutionMode.THREAD_POOL;
+        public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = Integer.MAX_VALUE;
+        public static final int DEFAULT_MAX_QUEUED_REQUESTS = Integer.MAX_VALUE;
+        public static final SheddingPolicy DEFAULT_SHEDDING_POLICY = SheddingPolicy.REJECT_NEWEST;
+        public static final Priority DEFAULT_PRIORITY = Priority.NORMAL;
+        public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+        public static final Duration DEFAULT_MAX_BATCH_DELAY = Duration.ofMillis(5);
+        public static final long DEFAULT_DEDUPLICATION_WINDOW_BYTES = 16 << 20;
+        public static final Duration DEFAULT_DEDUPLICATION_WINDOW_TTL = Duration.ofMinutes(1);
+        public static final int DEFAULT_RESPONSE_BUFFER_SIZE = 1024;
+        public static final Duration DEFAULT_RESPONSE_OFFER_TIMEOUT = Duration.ofMillis(100);
+        public static final int DEFAULT_REQUESTS_PREFETCH = 32;
+        public static final int DEFAULT_SHARD_COUNT = Runtime.getRuntime().availableProcessors();
+        public static final int DEFAULT_REORDER_BUFFER_SIZE = 64;
+
+        private ExecutionMode executionMode = DEFAULT_EXECUTION_MODE;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private int maxQueuedRequests = DEFAULT_MAX_QUEUED_REQUESTS;
+        private SheddingPolicy sheddingPolicy = DEFAULT_SHEDDING_POLICY;
+        private Optional<Duration> maxQueueTime = Optional.empty();
+        private boolean fairScheduling;
+        private Priority priority = DEFAULT_PRIORITY;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private Duration maxBatchDelay = DEFAULT_MAX_BATCH_DELAY;
+        private int deduplicationWindowSize;
+        private long deduplicationWindowBytes = DEFAULT_DEDUPLICATION_WINDOW_BYTES;
+        private Duration deduplicationWindowTtl = DEFAULT_DEDUPLICATION_WINDOW_TTL;
+        private int responseBufferSize = DEFAULT_RESPONSE_BUFFER_SIZE;
+        private Duration responseOfferTimeout = DEFAULT_RESPONSE_OFFER_TIMEOUT;
+        private int requestsPrefetch = DEFAULT_REQUESTS_PREFETCH;
+        private int shardCount = DEFAULT_SHARD_COUNT;
+        private boolean orderedReplies;
+        private int reorderBufferSize = DEFAULT_REORDER_BUFFER_SIZE;
+
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        public Builder maxQueuedRequests(int maxQueuedRequests) {
+            this.maxQueuedRequests = maxQueuedRequests;
+            return this;
+        }
+
+        public Builder sheddingPolicy(SheddingPolicy sheddingPolicy) {
+            this.sheddingPolicy = sheddingPolicy;
+            return this;
+        }
+
+        public Builder maxQueueTime(Duration maxQueueTime) {
+            this.maxQueueTime = Optional.of(maxQueueTime);
+            return this;
+        }
+
+        public Builder fairScheduling(boolean fairScheduling) {
+            this.fairScheduling = fairScheduling;
+            return this;
+        }
+
+        public Builder priority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder maxBatchDelay(Duration maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        public Builder deduplicationWindowSize(int deduplicationWindowSize) {
+            this.deduplicationWindowSize = deduplicationWindowSize;
+            return this;
+        }
+
+        public Builder deduplicationWindowBytes(long deduplicationWindowBytes) {
+            this.deduplicationWindowBytes = deduplicationWindowBytes;
+            return this;
+        }
+
+        public Builder deduplicationWindowTtl(Duration deduplicationWindowTtl) {
+            this.deduplicationWindowTtl = deduplicationWindowTtl;
+            return this;
+        }
+
+        public Builder responseBufferSize(int responseBufferSize) {
+            this.responseBufferSize = responseBufferSize;
+            return this;
+        }
+
+        public Builder responseOfferTimeout(Duration responseOfferTimeout) {
+            this.responseOfferTimeout = responseOfferTimeout;
+            return this;
+        }
+
+        public Builder requestsPrefetch(int requestsPrefetch) {
+            this.requestsPrefetch = requestsPrefetch;
+            return this;
+        }
+
+        public Builder shardCount(int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        public Builder orderedReplies(boolean orderedReplies) {
+            this.orderedReplies = orderedReplies;
+            return this;
+        }
+
+        public Builder reorderBufferSize(int reorderBufferSize) {
+            this.reorderBufferSize = reorderBufferSize;
+            return this;
+        }
+
+        public JRos2ServiceConfiguration build() {
+            return new JRos2ServiceConfiguration(
+                    executionMode,
+                    maxConcurrentRequests,
+                    maxQueuedRequests,
+                    sheddingPolicy,
+                    maxQueueTime,
+                    fairScheduling,
+                    priority,
+                    maxBatchSize,
+                    maxBatchDelay,
+                    deduplicationWindowSize,
+                    deduplicationWindowBytes,
+                    deduplicationWindowTtl,
+                    responseBufferSize,
+                    responseOfferTimeout,
+                    requestsPrefetch,
+                    shardCount,
+                    orderedReplies,
+                    reorderBufferSize);
+        }
+    }
+}
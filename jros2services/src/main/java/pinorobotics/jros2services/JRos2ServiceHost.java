@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.jroscommon.RosName;
+import id.jrosmessages.Message;
+import pinorobotics.jrosservices.msgs.ServiceDefinition;
+
+/**
+ * Group of ROS2 Services which share single lifecycle and single pool of dispatcher threads which
+ * execute their handlers.
+ *
+ * <p>Suits the processes which host many services, most of which are idle most of the time. Instead
+ * of the threads of each service, all of them are served by fixed number of threads. Services still
+ * have separate metrics and, besides the executor settings, separate configuration.
+ *
+ * @see JRos2ServicesFactory#createServiceHost(id.jros2client.JRos2Client, int)
+ * @author lambdaprime intid@protonmail.com
+ */
+public interface JRos2ServiceHost extends AutoCloseable {
+
+    /**
+     * Add service with default {@link JRos2ServiceConfiguration}
+     *
+     * @see #addService(ServiceDefinition, RosName, JRos2ServiceConfiguration, ServiceHandler)
+     */
+    <R extends Message, A extends Message> JRos2Service<R, A> addService(
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            ServiceHandler<R, A> handler);
+
+    /**
+     * Add service which executes the handler in the dispatcher threads of the host, within the
+     * limits set by the configuration. {@link JRos2ServiceConfiguration#executionMode()} is
+     * ignored.
+     *
+     * <p>Services added before the host is started are started together with it, the ones added
+     * after are started right away. Services can be closed individually, otherwise they are closed
+     * together with the host. Closing a service waits until the requests which it accepted already
+     * are executed and replied.
+     *
+     * @param <R> request message type
+     * @param <A> response message type
+     */
+    <R extends Message, A extends Message> JRos2Service<R, A> addService(
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            JRos2ServiceConfiguration configuration,
+            ServiceHandler<R, A> handler);
+
+    /** Start all services of the host */
+    void start();
+
+    /** Stop all services of the host and release its dispatcher threads */
+    @Override
+    void close();
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.xfunction.Preconditions;
+import java.util.EnumMap;
+import java.util.Map;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.Priority;
+
+/**
+ * Configuration of {@link JRos2ServicesFactory} which applies to all ROS2 Service clients and
+ * services created by it
+ *
+ * @param maxPooledBytes maximum number of bytes which serialization buffers pool keeps for reuse.
+ *     Requests and responses are serialized into the buffers from the pool and then copied into the
+ *     messages of exact size, which avoids allocating intermediate buffers for every message. Pool
+ *     is shared by all clients and services created by the factory. Value 0 disables pooling.
+ * @param minBufferSize size of the smallest buffer in the pool. Buffers are pooled in size classes
+ *     of powers of two between {@link #minBufferSize()} and {@link #maxBufferSize()}, both are
+ *     rounded up to the nearest power of two.
+ * @param maxBufferSize messages larger than this are serialized into the buffers which are not
+ *     pooled
+ * @param maxConcurrentRequests maximum number of requests which handlers of all services created by
+ *     the factory (with {@link JRos2ServiceConfiguration}) execute at the same time. Requests which
+ *     exceed it wait in the lanes of their {@link JRos2ServiceConfiguration#priority()} and are
+ *     dispatched from the highest priority lanes first. By default there is no limit and requests
+ *     of all services are executed right away.
+ * @param reservedRequests part of {@link #maxConcurrentRequests()} reserved for each of the
+ *     priorities. Requests of lower priority cannot use capacity reserved for the higher ones, so
+ *     high priority services are not starved when low priority services are flooded. Reservations
+ *     should leave some capacity to the lowest priority.
+ * @param publisherThreads number of threads which deliver responses of all services created by the
+ *     factory to their RTPS writers
+ * @author lambdaprime intid@protonmail.com
+ */
+public record JRos2ServicesConfiguration(
+        long maxPooledBytes,
+        int minBufferSize,
+        int maxBufferSize,
+        int maxConcurrentRequests,
+        Map<Priority, Integer> reservedRequests,
+        int publisherThreads) {
+
+    public JRos2ServicesConfiguration {
+        Preconditions.isTrue(maxPooledBytes >= 0, "maxPooledBytes must not be negative");
+        Preconditions.isTrue(minBufferSize > 0, "minBufferSize must be positive");
+        Preconditions.isTrue(
+                maxBufferSize >= minBufferSize && maxBufferSize <= 1 << 30,
+                "maxBufferSize must be between minBufferSize and 2^30");
+        Preconditions.isTrue(maxConcurrentRequests > 0, "maxConcurrentRequests must be positive");
+        reservedRequests = Map.copyOf(reservedRequests);
+        var reservedCount = 0L;
+        for (var count : reservedRequests.values()) {
+            Preconditions.isTrue(count >= 0, "reservedRequests must not be negative");
+            reservedCount += count;
+        }
+        Preconditions.isTrue(
+                reservedCount < maxConcurrentRequests,
+                "reservedRequests must leave capacity for the lowest priority");
+        Preconditions.isTrue(publisherThreads > 0, "publisherThreads must be positive");
+    }
+
+    /**
+     * @author lambdaprime intid@protonmail.com
+     */
+    public static class Builder {
+        public static final long DEFAULT_MAX_POOLED_BYTES = 16 << 20;
+        public static final int DEFAULT_MIN_BUFFER_SIZE = 512;
+        public static final int DEFAULT_MAX_BUFFER_SIZE = 4 << 20;
+        public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = Integer.MAX_VALUE;
+        public static final int DEFAULT_PUBLISHER_THREADS = 2;
+
+        private long maxPooledBytes = DEFAULT_MAX_POOLED_BYTES;
+        private int minBufferSize = DEFAULT_MIN_BUFFER_SIZE;
+        private int maxBufferSize = DEFAULT_MAX_BUFFER_SIZE;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private Map<Priority, Integer> reservedRequests = new EnumMap<>(Priority.class);
+        private int publisherThreads = DEFAULT_PUBLISHER_THREADS;
+
+        public Builder maxPooledBytes(long maxPooledBytes) {
+            this.maxPooledBytes = maxPooledBytes;
+            return this;
+        }
+
+        public Builder minBufferSize(int minBufferSize) {
+            this.minBufferSize = minBufferSize;
+            return this;
+        }
+
+        public Builder maxBufferSize(int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /** Reserve part of {@link #maxConcurrentRequests(int)} for the given priority */
+        public Builder reservedRequests(Priority priority, int count) {
+            reservedRequests.put(priority, count);
+            return this;
+        }
+
+        public Builder publisherThreads(int publisherThreads) {
+            this.publisherThreads = publisherThreads;
+            return this;
+        }
+
+        public JRos2ServicesConfiguration build() {
+            return new JRos2ServicesConfiguration(
+                    maxPooledBytes,
+                    minBufferSize,
+                    maxBufferSize,
+                    maxConcurrentRequests,
+                    reservedRequests,
+                    publisherThreads);
+        }
+    }
+}
@@ -22,24 +22,63 @@ import id.jros2client.impl.JRos2ClientImpl;
 import id.jros2client.impl.rmw.DdsNameMapper;
 import id.jroscommon.RosName;
 import id.jrosmessages.Message;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import pinorobotics.jros2services.impl.BufferPool;
 import pinorobotics.jros2services.impl.JRos2ServiceClientImpl;
+import pinorobotics.jros2services.impl.JRos2ServiceHostImpl;
 import pinorobotics.jros2services.impl.JRos2ServiceImpl;
-import pinorobotics.jrosservices.JRosServiceClient;
+import pinorobotics.jros2services.impl.LocalServiceRegistry;
+import pinorobotics.jros2services.impl.PriorityLanes;
+import pinorobotics.jros2services.impl.ResponseDemultiplexerRegistry;
+import pinorobotics.jros2services.impl.ResponsePublisherPool;
+import pinorobotics.jros2services.impl.SharedResources;
 import pinorobotics.jrosservices.msgs.ServiceDefinition;
 
 /**
  * Factory methods of <b>jros2services</b> module.
  *
+ * <p>Factory should be closed after all services created by it are closed, to release the resources
+ * shared between them.
+ *
  * @author lambdaprime intid@protonmail.com
  */
-public class JRos2ServicesFactory {
+public class JRos2ServicesFactory implements AutoCloseable {
 
     private DdsNameMapper nameMapper = new DdsNameMapper();
+    private ResponseDemultiplexerRegistry demultiplexers = new ResponseDemultiplexerRegistry();
+    private LocalServiceRegistry localServices = new LocalServiceRegistry();
+    private BufferPool bufferPool;
+    private ResponsePublisherPool publisherPool;
+    private SharedResources resources;
+
+    /** Create factory with default {@link JRos2ServicesConfiguration} */
+    public JRos2ServicesFactory() {
+        this(new JRos2ServicesConfiguration.Builder().build());
+    }
 
     /**
-     * Create ROS2 Service client
+     * @param configuration configuration shared by all clients and services created by this factory
+     */
+    public JRos2ServicesFactory(JRos2ServicesConfiguration configuration) {
+        bufferPool = new BufferPool(configuration);
+        var lanes =
+                configuration.maxConcurrentRequests()
+                                == JRos2ServicesConfiguration.Builder
+                                        .DEFAULT_MAX_CONCURRENT_REQUESTS
+                        ? Optional.<PriorityLanes>empty()
+                        : Optional.of(new PriorityLanes(configuration));
+        publisherPool = new ResponsePublisherPool(configuration.publisherThreads());
+        resources =
+                new SharedResources(
+                        lanes,
+                        Optional.of(publisherPool),
+                        Optional.empty(),
+                        Optional.of(localServices));
+    }
+
+    /**
+     * Create ROS2 Service client with default {@link JRos2ServiceClientConfiguration}
      *
      * @param client ROS2 client
      * @param serviceDefinition type definitions for a service messages
@@ -48,11 +87,48 @@ public class JRos2ServicesFactory {
      * @param <R> request message type
      * @param <A> response message type
      */
-    public <R extends Message, A extends Message> JRosServiceClient<R, A> createClient(
+    public <R extends Message, A extends Message> JRos2ServiceClient<R, A> createClient(
             JRos2Client client, ServiceDefinition<R, A> serviceDefinition, String serviceName) {
+        return createClient(
+                client,
+                serviceDefinition,
+                serviceName,
+                new JRos2ServiceClientConfiguration.Builder().build());
+    }
+
+    /**
+     * Create ROS2 Service client
+     *
+     * <p>All clients created by this factory for the same service and same {@link JRos2Client}
+     * share single subscription to the service responses.
+     *
+     * <p>When the service is created by this factory as well and runs in the same ROS2 domain,
+     * requests can be passed to it directly without RTPS, see {@link
+     * JRos2ServiceClientConfiguration#localDispatch()}.
+     *
+     * @param client ROS2 client
+     * @param serviceDefinition type definitions for a service messages
+     * @param serviceName name of the ROS2 service to which client will send the requests for
+     *     execution
+     * @param configuration service client configuration
+     * @param <R> request message type
+     * @param <A> response message type
+     */
+    public <R extends Message, A extends Message> JRos2ServiceClient<R, A> createClient(
+            JRos2Client client,
+            ServiceDefinition<R, A> serviceDefinition,
+            String serviceName,
+            JRos2ServiceClientConfiguration configuration) {
         if (client instanceof JRos2ClientImpl ros2Client) {
             return new JRos2ServiceClientImpl<>(
-                    ros2Client, serviceDefinition, new RosName(serviceName), nameMapper);
+                    ros2Client,
+                    serviceDefinition,
+                    new RosName(serviceName),
+                    nameMapper,
+                    configuration,
+                    demultiplexers,
+                    localServices,
+                    bufferPool.newSerializationUtils());
         } else {
             throw new IllegalArgumentException("Unknown JRos2Client implementation");
         }
@@ -67,16 +143,35 @@ public class JRos2ServicesFactory {
             ServiceDefinition<R, A> serviceDefinition,
             String serviceName,
             ServiceHandler<R, A> handler) {
+        return createService(client, serviceDefinition, new RosName(serviceName), handler);
+    }
+
+    /**
+     * Create ROS2 Service with default {@link JRos2ServiceConfiguration}
+     *
+     * @see JRos2ServicesFactory#createService(JRos2Client, ServiceDefinition, RosName,
+     *     JRos2ServiceConfiguration, ServiceHandler)
+     */
+    public <R extends Message, A extends Message> JRos2Service<R, A> createService(
+            JRos2Client client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            ServiceHandler<R, A> handler) {
         return createService(
                 client,
                 serviceDefinition,
-                new RosName(serviceName),
-                Executors.newCachedThreadPool(),
+                serviceName,
+                new JRos2ServiceConfiguration.Builder().build(),
                 handler);
     }
 
     /**
-     * Create ROS2 Service with {@link Executors#newCachedThreadPool()} as default executor
+     * Create ROS2 Service which executes the handler in the threads selected by {@link
+     * JRos2ServiceConfiguration#executionMode()} and within the limits set by the configuration.
+     *
+     * <p>When this factory limits {@link JRos2ServicesConfiguration#maxConcurrentRequests()}, the
+     * service shares handler capacity with other services created by it according to {@link
+     * JRos2ServiceConfiguration#priority()}.
      *
      * @see JRos2ServicesFactory#createService(JRos2Client, ServiceDefinition, RosName,
      *     ExecutorService, ServiceHandler)
@@ -85,9 +180,122 @@ public class JRos2ServicesFactory {
             JRos2Client client,
             ServiceDefinition<R, A> serviceDefinition,
             RosName serviceName,
+            JRos2ServiceConfiguration configuration,
             ServiceHandler<R, A> handler) {
-        return createService(
-                client, serviceDefinition, serviceName, Executors.newCachedThreadPool(), handler);
+        if (client instanceof JRos2ClientImpl ros2Client) {
+            return new JRos2ServiceImpl<>(
+                    ros2Client,
+                    serviceDefinition,
+                    serviceName,
+                    nameMapper,
+                    configuration,
+                    resources,
+                    handler,
+                    bufferPool.newSerializationUtils());
+        } else {
+            throw new IllegalArgumentException("Unknown JRos2Client implementation");
+        }
+    }
+
+    /**
+     * Create ROS2 Service which executes the handler asynchronously. Threads selected by {@link
+     * JRos2ServiceConfiguration#executionMode()} are released as soon as the handler returns the
+     * future, and responses are sent when the futures complete, in any order.
+     *
+     * <p>Limits set by the configuration apply to the handler calls only, not to the time their
+     * futures take to complete.
+     *
+     * @see JRos2ServicesFactory#createService(JRos2Client, ServiceDefinition, RosName,
+     *     JRos2ServiceConfiguration, ServiceHandler)
+     */
+    public <R extends Message, A extends Message> JRos2Service<R, A> createAsyncService(
+            JRos2Client client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            JRos2ServiceConfiguration configuration,
+            AsyncServiceHandler<R, A> handler) {
+        if (client instanceof JRos2ClientImpl ros2Client) {
+            return new JRos2ServiceImpl<>(
+                    ros2Client,
+                    serviceDefinition,
+                    serviceName,
+                    nameMapper,
+                    configuration,
+                    resources,
+                    handler,
+                    bufferPool.newSerializationUtils());
+        } else {
+            throw new IllegalArgumentException("Unknown JRos2Client implementation");
+        }
+    }
+
+    /**
+     * Create ROS2 Service which collects incoming requests into batches (see {@link
+     * JRos2ServiceConfiguration#maxBatchSize()}, {@link JRos2ServiceConfiguration#maxBatchDelay()})
+     * and executes each of them with single call to the handler. Responses are sent to the clients
+     * of the corresponding requests.
+     *
+     * <p>Other settings of the configuration apply to the batches instead of individual requests.
+     *
+     * @see JRos2ServicesFactory#createService(JRos2Client, ServiceDefinition, RosName,
+     *     JRos2ServiceConfiguration, ServiceHandler)
+     */
+    public <R extends Message, A extends Message> JRos2Service<R, A> createBatchService(
+            JRos2Client client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            JRos2ServiceConfiguration configuration,
+            BatchServiceHandler<R, A> handler) {
+        if (client instanceof JRos2ClientImpl ros2Client) {
+            return new JRos2ServiceImpl<>(
+                    ros2Client,
+                    serviceDefinition,
+                    serviceName,
+                    nameMapper,
+                    configuration,
+                    resources,
+                    handler,
+                    bufferPool.newSerializationUtils());
+        } else {
+            throw new IllegalArgumentException("Unknown JRos2Client implementation");
+        }
+    }
+
+    /**
+     * Create ROS2 Service which executes requests in {@link JRos2ServiceConfiguration#shardCount()}
+     * single threaded shards. Requests with the same key are always executed by the same shard in
+     * the order of their arrival, while requests of different shards are executed in parallel.
+     *
+     * <p>Limits set by the configuration apply to each shard separately. {@link
+     * JRos2ServiceConfiguration#executionMode()} and {@link
+     * JRos2ServiceConfiguration#maxConcurrentRequests()} are ignored, {@link
+     * JRos2ServiceConfiguration#fairScheduling()} is not supported.
+     *
+     * @param keyExtractor extractor of the request keys
+     * @see JRos2ServicesFactory#createService(JRos2Client, ServiceDefinition, RosName,
+     *     JRos2ServiceConfiguration, ServiceHandler)
+     */
+    public <R extends Message, A extends Message> JRos2Service<R, A> createShardedService(
+            JRos2Client client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            JRos2ServiceConfiguration configuration,
+            ShardKeyExtractor<R> keyExtractor,
+            ServiceHandler<R, A> handler) {
+        if (client instanceof JRos2ClientImpl ros2Client) {
+            return new JRos2ServiceImpl<>(
+                    ros2Client,
+                    serviceDefinition,
+                    serviceName,
+                    nameMapper,
+                    configuration,
+                    resources,
+                    keyExtractor,
+                    handler,
+                    bufferPool.newSerializationUtils());
+        } else {
+            throw new IllegalArgumentException("Unknown JRos2Client implementation");
+        }
     }
 
     /**
@@ -110,9 +318,51 @@ public class JRos2ServicesFactory {
             ServiceHandler<R, A> handler) {
         if (client instanceof JRos2ClientImpl ros2Client) {
             return new JRos2ServiceImpl<>(
-                    ros2Client, serviceDefinition, serviceName, nameMapper, executor, handler);
+                    ros2Client,
+                    serviceDefinition,
+                    serviceName,
+                    nameMapper,
+                    executor,
+                    handler,
+                    bufferPool.newSerializationUtils(),
+                    new JRos2ServiceConfiguration.Builder().build(),
+                    resources);
         } else {
             throw new IllegalArgumentException("Unknown JRos2Client implementation");
         }
     }
+
+    /**
+     * Create host for many ROS2 Services with dispatcher threads for each available processor
+     *
+     * @see #createServiceHost(JRos2Client, int)
+     */
+    public JRos2ServiceHost createServiceHost(JRos2Client client) {
+        return createServiceHost(client, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create host for many ROS2 Services. Its services share the dispatcher threads which execute
+     * their handlers, besides the resources this factory shares between all services created by it.
+     *
+     * <p>Handlers which block should be given more threads, since they hold the threads of all
+     * other services of the host.
+     *
+     * @param client ROS2 client
+     * @param dispatcherThreads number of threads which execute handlers of all services of the host
+     */
+    public JRos2ServiceHost createServiceHost(JRos2Client client, int dispatcherThreads) {
+        if (client instanceof JRos2ClientImpl ros2Client) {
+            return new JRos2ServiceHostImpl(
+                    ros2Client, nameMapper, bufferPool, resources, dispatcherThreads);
+        } else {
+            throw new IllegalArgumentException("Unknown JRos2Client implementation");
+        }
+    }
+
+    /** Release threads which deliver responses of the services created by this factory */
+    @Override
+    public void close() {
+        publisherPool.close();
+    }
 }
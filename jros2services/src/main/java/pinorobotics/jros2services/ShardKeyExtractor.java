@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services;
+
+import id.jrosmessages.Message;
+
+/**
+ * Assigns incoming ROS2 requests of the sharded service to the shards.
+ *
+ * <p>Requests with equal keys (see {@link Object#equals(Object)}) always go to the same single
+ * threaded shard, so they are executed one after another in the order of their arrival. It lets the
+ * handlers keep the state of each key (robot, map region, etc.) without any locks, while requests
+ * with different keys are executed in parallel.
+ *
+ * <p>Supposed to be implemented by the users.
+ *
+ * @see JRos2ServicesFactory#createShardedService(id.jros2client.JRos2Client,
+ *     pinorobotics.jrosservices.msgs.ServiceDefinition, id.jroscommon.RosName,
+ *     JRos2ServiceConfiguration, ShardKeyExtractor, ServiceHandler)
+ * @author lambdaprime intid@protonmail.com
+ */
+@FunctionalInterface
+public interface ShardKeyExtractor<R extends Message> {
+
+    /**
+     * @return key of the request, must not be null
+     */
+    Object getKey(R request);
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientConstants;
+import id.jros2messages.Ros2MessageSerializationUtils;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import pinorobotics.jros2services.JRos2ServicesConfiguration;
+import pinorobotics.jros2services.metrics.BufferPoolMetrics;
+
+/**
+ * Pool of byte buffers split into size classes of powers of two.
+ *
+ * <p>Buffers larger than the biggest size class are allocated on each request and are not pooled.
+ * Released buffers are dropped when the pool already keeps {@link
+ * JRos2ServicesConfiguration#maxPooledBytes()}.
+ *
+ * <p>Thread safe.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class BufferPool {
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(BufferPool.class.getSimpleName());
+    private static final LongUpDownCounter POOLED_BYTES_METER =
+            METER.upDownCounterBuilder(BufferPoolMetrics.POOLED_BYTES_METRIC)
+                    .setDescription(BufferPoolMetrics.POOLED_BYTES_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongUpDownCounter BUFFERS_IN_USE_METER =
+            METER.upDownCounterBuilder(BufferPoolMetrics.BUFFERS_IN_USE_METRIC)
+                    .setDescription(BufferPoolMetrics.BUFFERS_IN_USE_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter BUFFERS_ALLOCATED_METER =
+            METER.counterBuilder(BufferPoolMetrics.BUFFERS_ALLOCATED_COUNT_METRIC)
+                    .setDescription(BufferPoolMetrics.BUFFERS_ALLOCATED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+
+    private final List<ConcurrentLinkedQueue<byte[]>> sizeClasses;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final long maxPooledBytes;
+    private final int minBufferSize;
+    private final int maxBufferSize;
+
+    public BufferPool(JRos2ServicesConfiguration configuration) {
+        this(
+                configuration.maxPooledBytes(),
+                configuration.minBufferSize(),
+                configuration.maxBufferSize());
+    }
+
+    /**
+     * @see JRos2ServicesConfiguration
+     */
+    public BufferPool(long maxPooledBytes, int minBufferSize, int maxBufferSize) {
+        this.maxPooledBytes = maxPooledBytes;
+        this.minBufferSize = roundUp(minBufferSize);
+        this.maxBufferSize = roundUp(maxBufferSize);
+        var count =
+                Integer.numberOfTrailingZeros(this.maxBufferSize)
+                        - Integer.numberOfTrailingZeros(this.minBufferSize)
+                        + 1;
+        sizeClasses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) sizeClasses.add(new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * @return buffer of at least given size, which should be returned back with {@link
+     *     #release(byte[])} once it is not used anymore. Content of the buffer is undefined.
+     */
+    public byte[] acquire(int size) {
+        BUFFERS_IN_USE_METER.add(1, JRos2ClientConstants.METRIC_ATTRS);
+        if (size > maxBufferSize) {
+            BUFFERS_ALLOCATED_METER.add(1, JRos2ClientConstants.METRIC_ATTRS);
+            return new byte[size];
+        }
+        var sizeClass = sizeClass(size);
+        var buf = sizeClasses.get(sizeClass).poll();
+        if (buf != null) {
+            pooledBytes.addAndGet(-buf.length);
+            POOLED_BYTES_METER.add(-buf.length, JRos2ClientConstants.METRIC_ATTRS);
+            return buf;
+        }
+        BUFFERS_ALLOCATED_METER.add(1, JRos2ClientConstants.METRIC_ATTRS);
+        return new byte[minBufferSize << sizeClass];
+    }
+
+    /** Return buffer acquired from this pool */
+    public void release(byte[] buf) {
+        BUFFERS_IN_USE_METER.add(-1, JRos2ClientConstants.METRIC_ATTRS);
+        var size = buf.length;
+        if (size > maxBufferSize || size < minBufferSize || Integer.bitCount(size) != 1) return;
+        // space is reserved before the buffer is pooled so that concurrent releases cannot
+        // exceed the limit
+        if (pooledBytes.addAndGet(size) > maxPooledBytes) {
+            pooledBytes.addAndGet(-size);
+            return;
+        }
+        sizeClasses.get(sizeClass(size)).offer(buf);
+        POOLED_BYTES_METER.add(size, JRos2ClientConstants.METRIC_ATTRS);
+    }
+
+    /**
+     * @return number of bytes in the buffers available for reuse
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public int getMinBufferSize() {
+        return minBufferSize;
+    }
+
+    /**
+     * @return serializer which uses this pool or the default one if pooling is disabled
+     */
+    public Ros2MessageSerializationUtils newSerializationUtils() {
+        return maxPooledBytes > 0
+                ? new PooledMessageSerializationUtils(this)
+                : new Ros2MessageSerializationUtils();
+    }
+
+    private int sizeClass(int size) {
+        if (size <= minBufferSize) return 0;
+        return Integer.numberOfTrailingZeros(roundUp(size))
+                - Integer.numberOfTrailingZeros(minBufferSize);
+    }
+
+    private static int roundUp(int size) {
+        var rounded = Integer.highestOneBit(size);
+        return rounded < size ? rounded << 1 : rounded;
+    }
+}
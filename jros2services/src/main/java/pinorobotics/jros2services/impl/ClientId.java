@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.XByte;
+import java.util.Arrays;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
+
+/**
+ * Identifies clients of the service by the writer GUID from the sample identity of their requests.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public final class ClientId {
+
+    /** Client of all requests, which are not scheduled by their clients */
+    public static final ClientId ANY = new ClientId(new byte[0]);
+
+    private final byte[] guid;
+    private final int hashCode;
+
+    private ClientId(byte[] guid) {
+        this.guid = guid;
+        hashCode = Arrays.hashCode(guid);
+    }
+
+    /**
+     * @param identity encoded sample identity of the request
+     */
+    public static ClientId fromIdentity(byte[] identity) {
+        return new ClientId(Arrays.copyOf(identity, SampleIdentity.GUID_SIZE));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ClientId other)) return false;
+        return hashCode == other.hashCode && Arrays.equals(guid, other.guid);
+    }
+
+    /**
+     * @return GUID in hex
+     */
+    @Override
+    public String toString() {
+        return XByte.toHex(guid);
+    }
+}
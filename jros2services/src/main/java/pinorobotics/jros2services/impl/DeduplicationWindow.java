@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * Sliding window of the requests recently received by the service, identified by their sample
+ * identity (writer GUID and sequence number).
+ *
+ * <p>Requests stay in the window while they are running and after they complete, together with
+ * their serialized replies, so that copies of them (retransmitted by RTPS or retried by the
+ * clients) are not executed again.
+ *
+ * <p>Oldest requests leave the window when it exceeds maximum number of requests or maximum size of
+ * the replies, or when they are older than the time to live.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DeduplicationWindow {
+
+    /**
+     * Earlier copy of the request
+     *
+     * @param reply serialized reply of the request or empty if request is still running
+     */
+    public record Duplicate(Optional<byte[]> reply) {}
+
+    private static final Duplicate RUNNING = new Duplicate(Optional.empty());
+
+    private static class Entry {
+        private final long addedAt;
+        private final Duplicate duplicate;
+
+        Entry(long addedAt, Duplicate duplicate) {
+            this.addedAt = addedAt;
+            this.duplicate = duplicate;
+        }
+
+        int size() {
+            return duplicate.reply.map(reply -> reply.length).orElse(0);
+        }
+    }
+
+    // insertion order, so that the oldest entries are at the head
+    private final LinkedHashMap<ByteBuffer, Entry> entries = new LinkedHashMap<>();
+    private final int maxSize;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private long bytes;
+
+    /**
+     * @param maxSize maximum number of requests in the window
+     * @param maxBytes maximum size of all replies in the window
+     * @param ttl how long requests stay in the window
+     */
+    public DeduplicationWindow(int maxSize, long maxBytes, Duration ttl) {
+        Preconditions.isTrue(maxSize > 0, "Window size must be positive");
+        Preconditions.isTrue(maxBytes >= 0, "Window bytes must not be negative");
+        Preconditions.isTrue(!ttl.isNegative() && !ttl.isZero(), "Window TTL must be positive");
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+        ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * @return earlier copy of the request, if there is any in the window
+     */
+    public synchronized Optional<Duplicate> find(byte[] identity) {
+        evict(System.nanoTime());
+        return Optional.ofNullable(entries.get(ByteBuffer.wrap(identity))).map(e -> e.duplicate);
+    }
+
+    /**
+     * Add the request to the window as running, unless it is there already
+     *
+     * @return earlier copy of the request, if there is any in the window
+     */
+    public synchronized Optional<Duplicate> register(byte[] identity) {
+        var now = System.nanoTime();
+        evict(now);
+        var key = ByteBuffer.wrap(identity);
+        var entry = entries.get(key);
+        if (entry != null) return Optional.of(entry.duplicate);
+        entries.put(key, new Entry(now, RUNNING));
+        evict(now);
+        return Optional.empty();
+    }
+
+    /** Keep the reply of the completed request, so that it can be replayed to its copies */
+    public synchronized void complete(byte[] identity, byte[] reply) {
+        var key = ByteBuffer.wrap(identity);
+        remove(key);
+        if (reply.length > maxBytes) return;
+        // completed request moves to the tail and stays in the window for the whole TTL
+        var entry = new Entry(System.nanoTime(), new Duplicate(Optional.of(reply)));
+        entries.put(key, entry);
+        bytes += entry.size();
+        evict(entry.addedAt);
+    }
+
+    /** Remove the request which failed, so that its copies are executed again */
+    public synchronized void remove(byte[] identity) {
+        remove(ByteBuffer.wrap(identity));
+    }
+
+    /**
+     * @return number of requests in the window
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return size of all replies in the window
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void remove(ByteBuffer key) {
+        var entry = entries.remove(key);
+        if (entry != null) bytes -= entry.size();
+    }
+
+    private void evict(long now) {
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entries.size() <= maxSize && bytes <= maxBytes && now - entry.addedAt < ttlNanos)
+                break;
+            iterator.remove();
+            bytes -= entry.size();
+        }
+    }
+}
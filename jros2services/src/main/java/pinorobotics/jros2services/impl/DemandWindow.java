@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+
+/**
+ * Demand of the subscriber which prefetches the messages and replenishes them in batches, when half
+ * of the prefetched messages are consumed, instead of requesting every message separately.
+ *
+ * <p>Not thread safe, expected to be used from {@link
+ * java.util.concurrent.Flow.Subscriber#onNext(Object)} which is never called concurrently.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DemandWindow {
+
+    private final int prefetch;
+    private final int replenishThreshold;
+    private int consumedCount;
+
+    /**
+     * @param prefetch maximum number of messages requested ahead
+     */
+    public DemandWindow(int prefetch) {
+        Preconditions.isTrue(prefetch > 0, "prefetch must be positive");
+        this.prefetch = prefetch;
+        replenishThreshold = Math.max(1, prefetch / 2);
+    }
+
+    /**
+     * @return number of messages to request initially
+     */
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * @return number of messages to request after one more message was consumed, or 0 if it is not
+     *     time to request them yet
+     */
+    public int onConsumed() {
+        consumedCount++;
+        if (consumedCount < replenishThreshold) return 0;
+        var count = consumedCount;
+        consumedCount = 0;
+        return count;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * View of the dispatcher threads shared by many services, for the tasks of a single service.
+ *
+ * <p>Shutting the view down stops it from accepting new tasks and lets already accepted ones
+ * complete, while the dispatcher keeps running for other services.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class DispatcherView extends AbstractExecutorService {
+
+    private final ExecutorService dispatcher;
+    // guarded by this
+    private int pendingCount;
+    private boolean isShutdown;
+
+    public DispatcherView(ExecutorService dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            if (isShutdown) throw new RejectedExecutionException("Executor is shutdown");
+            pendingCount++;
+        }
+        try {
+            dispatcher.execute(
+                    () -> {
+                        try {
+                            task.run();
+                        } finally {
+                            onCompleted();
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            onCompleted();
+            throw e;
+        }
+    }
+
+    /** Accepted tasks are still executed */
+    @Override
+    public synchronized void shutdown() {
+        isShutdown = true;
+    }
+
+    /** Tasks of the view cannot be told apart in the dispatcher queue, so none are returned */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return List.of();
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return isShutdown && pendingCount == 0;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    private synchronized void onCompleted() {
+        pendingCount--;
+        if (pendingCount == 0) notifyAll();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Queue which shares the consumer capacity between the clients with deficit round robin.
+ *
+ * <p>Each client has its own FIFO queue and clients with items are polled in round robin order.
+ * Cost of the items is not known until they are processed, so clients are charged for them
+ * afterwards with {@link #charge(Object, long)}. Client is skipped while its deficit is negative
+ * and each time it is skipped its deficit grows by the quantum, which is the average cost of the
+ * items. As result clients receive equal share of the consumer time, no matter how many items each
+ * of them has queued or how expensive they are.
+ *
+ * <p>As in the classic DRR, deficit of the client is discarded once its queue is empty.
+ *
+ * <p>Not thread safe.
+ *
+ * @param <T> type of items
+ * @author lambdaprime intid@protonmail.com
+ */
+public class FairQueue<T> {
+
+    private static final class ClientQueue<T> {
+        private final Object client;
+        private final ArrayDeque<T> items = new ArrayDeque<>();
+        private long deficit;
+
+        ClientQueue(Object client) {
+            this.client = client;
+        }
+    }
+
+    private final Map<Object, ClientQueue<T>> clients = new HashMap<>();
+
+    /** Clients with items in the round robin order */
+    private final ArrayDeque<ClientQueue<T>> active = new ArrayDeque<>();
+
+    private int size;
+    private long quantum = 1;
+
+    public void add(Object client, T item) {
+        var queue = clients.get(client);
+        if (queue == null) {
+            queue = new ClientQueue<>(client);
+            clients.put(client, queue);
+            active.addLast(queue);
+        }
+        queue.items.addLast(item);
+        size++;
+    }
+
+    /**
+     * @return next item according to the deficit round robin or null if queue is empty
+     */
+    public T poll() {
+        if (active.isEmpty()) return null;
+        var skipped = 0;
+        while (true) {
+            var queue = active.peekFirst();
+            if (queue.deficit < 0) {
+                if (++skipped >= active.size()) {
+                    // all clients are in deficit, give everyone as many rounds as needed
+                    // for the first of them to recover instead of looping round by round
+                    topUp();
+                    skipped = 0;
+                    continue;
+                }
+                queue.deficit += quantum;
+                active.addLast(active.pollFirst());
+                continue;
+            }
+            active.pollFirst();
+            var item = queue.items.pollFirst();
+            size--;
+            if (queue.items.isEmpty()) clients.remove(queue.client);
+            else active.addLast(queue);
+            return item;
+        }
+    }
+
+    /**
+     * Remove oldest item of the client which has most of them queued
+     *
+     * @return removed item or null if queue is empty
+     */
+    public T pollLongest() {
+        ClientQueue<T> longest = null;
+        for (var queue : active)
+            if (longest == null || queue.items.size() > longest.items.size()) longest = queue;
+        if (longest == null) return null;
+        var item = longest.items.pollFirst();
+        size--;
+        if (longest.items.isEmpty()) {
+            clients.remove(longest.client);
+            active.remove(longest);
+        }
+        return item;
+    }
+
+    /** Charge the client for the item it received from {@link #poll()} */
+    public void charge(Object client, long cost) {
+        quantum = Math.max(1, quantum + (cost - quantum) / 8);
+        var queue = clients.get(client);
+        if (queue != null) queue.deficit -= cost;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of clients with items
+     */
+    public int clientCount() {
+        return active.size();
+    }
+
+    /**
+     * @return number of items of the client which has most of them queued
+     */
+    public int longestClientSize() {
+        var longest = 0;
+        for (var queue : active) longest = Math.max(longest, queue.items.size());
+        return longest;
+    }
+
+    /** Remove all items and pass them to the consumer */
+    public void clear(Consumer<T> consumer) {
+        for (var queue : active) queue.items.forEach(consumer);
+        active.clear();
+        clients.clear();
+        size = 0;
+    }
+
+    private void topUp() {
+        var maxDeficit = Long.MIN_VALUE;
+        for (var queue : active) maxDeficit = Math.max(maxDeficit, queue.deficit);
+        if (maxDeficit >= 0) return;
+        var rounds = (-maxDeficit + quantum - 1) / quantum;
+        for (var queue : active) queue.deficit += rounds * quantum;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientConstants;
+import id.jroscommon.RosName;
+import id.xfunction.Preconditions;
+import id.xfunction.concurrent.NamedThreadFactory;
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.common.Attributes;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.ExecutionMode;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+
+/**
+ * Creates executors of {@link pinorobotics.jros2services.ServiceHandler} according to {@link
+ * JRos2ServiceConfiguration}
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class HandlerExecutors {
+
+    private static final XLogger LOGGER = XLogger.getLogger(HandlerExecutors.class);
+
+    /**
+     * @param resources capacity and threads shared with other services, if any. When dispatcher
+     *     threads are shared, {@link JRos2ServiceConfiguration#executionMode()} is ignored.
+     * @return executor for the handler of the given service, which sheds the requests when any
+     *     limits on them are configured
+     */
+    public static ExecutorService newExecutor(
+            JRos2ServiceConfiguration configuration,
+            RosName serviceName,
+            SharedResources resources) {
+        var executor =
+                resources
+                        .dispatcher()
+                        .<ExecutorService>map(DispatcherView::new)
+                        .orElseGet(() -> newThreadsExecutor(configuration, serviceName));
+        return withLimits(executor, configuration, serviceName, resources.lanes());
+    }
+
+    /**
+     * Each shard has its own thread and its own queue, to which limits of the configuration apply.
+     * {@link JRos2ServiceConfiguration#maxConcurrentRequests()} is ignored since shard executes one
+     * request at a time. Dispatcher threads of the resources are not used.
+     *
+     * @param resources capacity shared with other services, if any
+     * @return executor of the sharded service with {@link JRos2ServiceConfiguration#shardCount()}
+     *     shards
+     */
+    public static ShardedExecutor newShardedExecutor(
+            JRos2ServiceConfiguration configuration,
+            RosName serviceName,
+            SharedResources resources) {
+        Preconditions.isTrue(
+                !configuration.fairScheduling(),
+                "Fair scheduling reorders requests and cannot be used by the sharded services");
+        var hasLimits =
+                configuration.maxQueuedRequests() != Integer.MAX_VALUE
+                        || configuration.maxQueueTime().isPresent();
+        var shards = new ArrayList<ExecutorService>(configuration.shardCount());
+        for (int i = 0; i < configuration.shardCount(); i++) {
+            ExecutorService shard =
+                    Executors.newSingleThreadExecutor(
+                            new NamedThreadFactory(serviceName.toGlobalName() + "-shard-" + i));
+            if (resources.lanes().isPresent())
+                shard = resources.lanes().get().newLaneExecutor(configuration.priority(), shard);
+            if (hasLimits)
+                shard =
+                        new SheddingExecutor(
+                                shard, configuration, 1, newMetricAttributes(serviceName));
+            shards.add(shard);
+        }
+        return new ShardedExecutor(shards);
+    }
+
+    private static ExecutorService withLimits(
+            ExecutorService executor,
+            JRos2ServiceConfiguration configuration,
+            RosName serviceName,
+            Optional<PriorityLanes> lanes) {
+        if (lanes.isPresent())
+            executor = lanes.get().newLaneExecutor(configuration.priority(), executor);
+        if (!configuration.hasLimits()) return executor;
+        return new SheddingExecutor(executor, configuration, newMetricAttributes(serviceName));
+    }
+
+    private static Attributes newMetricAttributes(RosName serviceName) {
+        return Attributes.builder()
+                .putAll(JRos2ClientConstants.METRIC_ATTRS)
+                .put("service", serviceName.toGlobalName())
+                .build();
+    }
+
+    private static ExecutorService newThreadsExecutor(
+            JRos2ServiceConfiguration configuration, RosName serviceName) {
+        var mode = configuration.executionMode();
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            if (VirtualThreads.isSupported())
+                return VirtualThreads.newThreadPerTaskExecutor(serviceName.toGlobalName());
+            LOGGER.warning(
+                    "Virtual threads are not supported by Java {0}, service {1} falls back to {2}",
+                    Runtime.version().feature(), serviceName, ExecutionMode.THREAD_POOL);
+        }
+        return Executors.newCachedThreadPool();
+    }
+}
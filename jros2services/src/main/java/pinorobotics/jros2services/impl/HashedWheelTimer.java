@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import id.xfunction.logging.XLogger;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer which executes large number of short tasks (usually timeouts which are mostly cancelled)
+ * with O(1) cost of scheduling and cancellation.
+ *
+ * <p>Tasks are placed into the buckets of the wheel based on their deadline. Single worker thread
+ * moves along the wheel every tick and executes the tasks which are expired. Precision of the timer
+ * is limited by the tick duration.
+ *
+ * <p>Worker thread is started on the first scheduled task and parks when there are no tasks
+ * pending.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class HashedWheelTimer {
+
+    private static final XLogger LOGGER = XLogger.getLogger(HashedWheelTimer.class);
+
+    /** Handle of the task scheduled with the timer */
+    public interface Timeout {
+        /**
+         * @return false if task was already executed or cancelled
+         */
+        boolean cancel();
+    }
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<TimeoutTask> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(TimeoutTask.class, "state");
+
+    private class TimeoutTask implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = STATE_INIT;
+        private long remainingRounds;
+
+        // accessed by worker thread only
+        private Bucket bucket;
+        private TimeoutTask next, prev;
+
+        TimeoutTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, STATE_INIT, STATE_CANCELLED)) return false;
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, STATE_INIT, STATE_EXPIRED)) return;
+            pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.severe("Timer task failed", e);
+            }
+        }
+    }
+
+    /** Doubly linked list of tasks, accessed by worker thread only */
+    private static class Bucket {
+        private TimeoutTask head, tail;
+
+        void add(TimeoutTask timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(TimeoutTask timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            else tail = timeout.prev;
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<TimeoutTask> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<TimeoutTask> cancelledTimeouts =
+            new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long tickNanos;
+    private final Thread worker;
+
+    /**
+     * @param name name of the worker thread
+     * @param tickDuration precision of the timer
+     * @param wheelSize number of buckets in the wheel, rounded up to the nearest power of two
+     */
+    public HashedWheelTimer(String name, Duration tickDuration, int wheelSize) {
+        Preconditions.isTrue(!tickDuration.isNegative() && !tickDuration.isZero());
+        Preconditions.isTrue(wheelSize > 0 && wheelSize <= 1 << 20, "Wrong wheel size");
+        var size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) size <<= 1;
+        wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+        mask = size - 1;
+        tickNanos = tickDuration.toNanos();
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+    }
+
+    /** Schedule task to be executed by the timer after given delay */
+    public Timeout newTimeout(Runnable task, Duration delay) {
+        var timeout = new TimeoutTask(task, System.nanoTime() + delay.toNanos());
+        newTimeouts.add(timeout);
+        if (isStarted.compareAndSet(false, true)) worker.start();
+        if (pendingCount.getAndIncrement() == 0) LockSupport.unpark(worker);
+        return timeout;
+    }
+
+    /**
+     * @return number of tasks which are scheduled and not yet executed or cancelled
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void run() {
+        long startTime = System.nanoTime();
+        long tick = 0;
+        while (true) {
+            if (pendingCount.get() == 0) {
+                while (pendingCount.get() == 0) LockSupport.park(this);
+                startTime = System.nanoTime();
+                tick = 0;
+            }
+            var tickDeadline = startTime + (tick + 1) * tickNanos;
+            var sleepNanos = tickDeadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            processCancelled();
+            transferNewTimeouts(startTime, tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void processCancelled() {
+        TimeoutTask timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    private void transferNewTimeouts(long startTime, long tick) {
+        TimeoutTask timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            // cancelled tasks are accounted by processCancelled
+            if (timeout.state != STATE_INIT) continue;
+            var ticks = Math.max(0, (timeout.deadline - startTime + tickNanos - 1) / tickNanos);
+            // tasks which missed their tick are expired with the current one
+            var targetTick = Math.max(ticks - 1, tick);
+            timeout.remainingRounds = (targetTick - tick) / wheel.length;
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        var timeout = bucket.head;
+        while (timeout != null) {
+            var next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                bucket.remove(timeout);
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+}
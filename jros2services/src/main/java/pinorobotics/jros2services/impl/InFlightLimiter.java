@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Limits number of items which are in flight at the same time without blocking the callers.
+ *
+ * <p>Each item in flight holds a permit which should be released when it completes. Items which
+ * cannot get a permit right away may wait for it in FIFO order, they are passed to the admission
+ * consumer by the thread which releases the permit.
+ *
+ * @param <T> type of items
+ * @author lambdaprime intid@protonmail.com
+ */
+public class InFlightLimiter<T> {
+
+    private final ConcurrentLinkedQueue<T> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final int limit;
+    private final Consumer<T> onAdmitted;
+
+    /**
+     * @param onAdmitted receives waiting items once they get the permit
+     */
+    public InFlightLimiter(int limit, Consumer<T> onAdmitted) {
+        Preconditions.isTrue(limit > 0, "Limit must be positive");
+        this.limit = limit;
+        this.onAdmitted = onAdmitted;
+    }
+
+    /**
+     * Take permit if it is available and there are no items waiting for it
+     *
+     * @return true if permit was taken
+     */
+    public boolean tryAcquire() {
+        if (!waiting.isEmpty()) return false;
+        return tryIncrement();
+    }
+
+    /** Put item into the queue until permit becomes available for it */
+    public void acquireAsync(T item) {
+        waiting.add(item);
+        // permit could be released before item was added to the queue
+        drain();
+    }
+
+    public void release() {
+        inFlightCount.decrementAndGet();
+        drain();
+    }
+
+    /** Remove all waiting items and pass each of them to the consumer */
+    public void removeWaiting(Consumer<T> consumer) {
+        T item;
+        while ((item = waiting.poll()) != null) consumer.accept(item);
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    private boolean tryIncrement() {
+        while (true) {
+            var count = inFlightCount.get();
+            if (count >= limit) return false;
+            if (inFlightCount.compareAndSet(count, count + 1)) return true;
+        }
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && tryIncrement()) {
+            var item = waiting.poll();
+            if (item == null) {
+                // someone else took it, give the permit back
+                inFlightCount.decrementAndGet();
+                continue;
+            }
+            onAdmitted.accept(item);
+        }
+    }
+}
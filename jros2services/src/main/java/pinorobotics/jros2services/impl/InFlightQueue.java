@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.ArrayDeque;
+import java.util.function.Predicate;
+
+/**
+ * Items in flight in the order they were admitted, so that the oldest of them can be evicted in
+ * constant time.
+ *
+ * <p>Items which complete are not removed from the queue right away, they are skipped when the
+ * oldest item is polled. To keep the queue bounded when the oldest item stays in flight for long
+ * (request without the timeout which never receives the response), completed items are purged each
+ * time queue size doubles the limit.
+ *
+ * @param <T> type of items
+ * @author lambdaprime intid@protonmail.com
+ */
+public class InFlightQueue<T> {
+
+    private final ArrayDeque<T> items = new ArrayDeque<>();
+    private final Predicate<T> isCompleted;
+    private final int purgeThreshold;
+
+    /**
+     * @param limit maximum number of items in flight
+     * @param isCompleted tells if item is not in flight anymore
+     */
+    public InFlightQueue(int limit, Predicate<T> isCompleted) {
+        this.isCompleted = isCompleted;
+        purgeThreshold = Math.max(2 * limit, 16);
+    }
+
+    public synchronized void add(T item) {
+        items.add(item);
+        if (items.size() > purgeThreshold) items.removeIf(isCompleted);
+    }
+
+    /**
+     * Remove the oldest item which is still in flight
+     *
+     * @return removed item or null if there is no items in flight
+     */
+    public synchronized T pollOldest() {
+        T item;
+        while ((item = items.poll()) != null) {
+            if (!isCompleted.test(item)) return item;
+        }
+        return null;
+    }
+
+    /**
+     * @return number of items in the queue including completed ones which were not purged yet
+     */
+    public synchronized int size() {
+        return items.size();
+    }
+}
@@ -20,11 +20,10 @@ package pinorobotics.jros2services.impl;
 import id.jros2client.impl.JRos2ClientConstants;
 import id.jros2client.impl.JRos2ClientImpl;
 import id.jros2client.impl.rmw.DdsNameMapper;
-import id.jros2client.impl.rmw.RmwConstants;
 import id.jros2messages.Ros2MessageSerializationUtils;
 import id.jroscommon.RosName;
 import id.jrosmessages.Message;
-import id.xfunction.concurrent.flow.SimpleSubscriber;
+import id.xfunction.Preconditions;
 import id.xfunction.logging.XLogger;
 import id.xfunction.util.IdempotentService;
 import io.opentelemetry.api.GlobalOpenTelemetry;
@@ -32,24 +31,32 @@ import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.LongCounter;
 import io.opentelemetry.api.metrics.LongHistogram;
 import io.opentelemetry.api.metrics.Meter;
-import java.nio.ByteBuffer;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Flow.Subscription;
-import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
-import pinorobotics.jros2services.impl.ddsrpc.SampleIdentity;
-import pinorobotics.jrosservices.JRosServiceClient;
+import pinorobotics.jros2services.JRos2ServiceClient;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration.LocalDispatch;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration.OverflowPolicy;
+import pinorobotics.jros2services.JRos2ServiceClientConfiguration;
+import pinorobotics.jros2services.impl.ResponseDemultiplexer.ResponseListener;
+import pinorobotics.jros2services.impl.ddsrpc.SampleIdentityTemplate;
+import pinorobotics.jros2services.metrics.JRos2ServiceClientMetrics;
+import pinorobotics.jrosservices.exceptions.JRosServiceClientException;
 import pinorobotics.jrosservices.metrics.JRosServiceClientMetrics;
 import pinorobotics.jrosservices.msgs.ServiceDefinition;
-import pinorobotics.rtpstalk.RtpsTalkClient;
-import pinorobotics.rtpstalk.messages.Parameters;
 import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
-import pinorobotics.rtpstalk.messages.UserParameterId;
 
 /**
  * Client implementation which allows to interact with ROS2 Services.
@@ -63,7 +70,7 @@ import pinorobotics.rtpstalk.messages.UserParameterId;
  * @author lambdaprime intid@protonmail.com
  */
 public class JRos2ServiceClientImpl<R extends Message, A extends Message> extends IdempotentService
-        implements JRosServiceClient<R, A> {
+        implements JRos2ServiceClient<R, A> {
 
     private static final XLogger LOGGER = XLogger.getLogger(JRos2ServiceClientImpl.class);
 
@@ -84,37 +91,186 @@ public class JRos2ServiceClientImpl<R extends Message, A extends Message> extend
                             JRosServiceClientMetrics.CLIENT_GOAL_EXECUTION_TIME_METRIC_DESCRIPTION)
                     .ofLongs()
                     .build();
+    private static final LongCounter TIMEOUTS_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.REQUESTS_TIMEOUT_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.REQUESTS_TIMEOUT_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter CACHE_HITS_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.RESPONSE_CACHE_HITS_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.RESPONSE_CACHE_HITS_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter CACHE_MISSES_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.RESPONSE_CACHE_MISSES_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics
+                                    .RESPONSE_CACHE_MISSES_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter COALESCED_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.REQUESTS_COALESCED_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.REQUESTS_COALESCED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter REJECTED_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.REQUESTS_REJECTED_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.REQUESTS_REJECTED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter LOCAL_REQUESTS_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.REQUESTS_LOCAL_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.REQUESTS_LOCAL_COUNT_METRIC_DESCRIPTION)
+                    .build();
 
-    private record PendingRequest<T>(CompletableFuture<T> future, Instant requestedAt) {
-        public PendingRequest(CompletableFuture<T> result) {
-            this(result, Instant.now());
+    /** Timer shared by all clients to expire their requests */
+    private static final HashedWheelTimer TIMER =
+            new HashedWheelTimer("jros2services-timer", Duration.ofMillis(10), 512);
+
+    /**
+     * Callers may attach dependent actions to their futures, so timed out futures are completed by
+     * this executor instead of the timer thread, which would be blocked by them otherwise
+     */
+    private static final Executor EXPIRATION_EXECUTOR = ForkJoinPool.commonPool();
+
+    /**
+     * Thread shared by all clients to send requests which waited for the in flight permit, so that
+     * threads which release permits (timer, responses subscriber) do not send them
+     */
+    private static final Executor ADMISSION_EXECUTOR =
+            Executors.newSingleThreadExecutor(
+                    runnable -> {
+                        var thread = new Thread(runnable, "jros2services-admission");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
+    /**
+     * @param requestKey serialized request, present only when responses are cached or requests are
+     *     coalesced
+     */
+    private record PendingRequest<T>(
+            long seqNum, CompletableFuture<T> future, Instant requestedAt, RequestKey requestKey)
+            implements PendingRequestTable.Entry {
+        public PendingRequest(long seqNum, CompletableFuture<T> result, RequestKey requestKey) {
+            this(seqNum, result, Instant.now(), requestKey);
         }
     }
 
-    private final Ros2MessageSerializationUtils serializationUtils =
-            new Ros2MessageSerializationUtils();
-    private final Map<Long, PendingRequest<A>> pendingRequests = new ConcurrentHashMap<>();
-    private final DdsRpcUtils utils = new DdsRpcUtils();
+    private record WaitingRequest<T>(PendingRequest<T> request, byte[] data) {}
+
+    private final Ros2MessageSerializationUtils serializationUtils;
+    private final PendingRequestTable<PendingRequest<A>> pendingRequests;
+    private final InFlightLimiter<WaitingRequest<A>> inFlightLimiter;
+
+    /** Requests in flight in the order of their admission, used to drop the oldest of them */
+    private final Optional<InFlightQueue<PendingRequest<A>>> inFlightQueue;
+
+    private final OverflowPolicy overflowPolicy;
+    private final Optional<ResponseCache> responseCache;
+    private final boolean coalesceRequests;
+    private final int responsesPrefetch;
+    private final Map<RequestKey, CompletableFuture<A>> inFlightRequests =
+            new ConcurrentHashMap<>();
     private final AtomicLong requestCounter = new AtomicLong();
     private final DdsNameMapper rosNameMapper;
     private final JRos2ClientImpl jros2Client;
     private final ServiceDefinition<R, A> serviceDefinition;
     private final RosName serviceName;
     private final Attributes metricAttributes;
-    private SubmissionPublisher<RtpsTalkDataMessage> requestsPublisher;
-    private SimpleSubscriber<RtpsTalkDataMessage> responsesSubscriber;
-    private byte[] clientGuid;
+    private final Optional<Duration> defaultTimeout;
+    private final ResponseDemultiplexerRegistry demultiplexers;
+    private final LocalServiceRegistry localServices;
+    private final LocalDispatch localDispatch;
+    private ResponseDemultiplexerRegistry.Registration registration;
+    private LocalServiceRegistry.Key localServiceKey;
+    private ClientId localClientId;
+    private ObservableLongGauge inFlightGauge;
+    private SampleIdentityTemplate identityTemplate;
 
-    /** Creates a new instance of the client */
+    /** Creates a new instance of the client with default configuration */
     public JRos2ServiceClientImpl(
             JRos2ClientImpl jros2Client,
             ServiceDefinition<R, A> serviceDefinition,
             RosName serviceName,
             DdsNameMapper rosNameMapper) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                new JRos2ServiceClientConfiguration.Builder().build());
+    }
+
+    /**
+     * Creates a new instance of the client which does not share responses subscription and always
+     * sends requests over RTPS
+     */
+    public JRos2ServiceClientImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceClientConfiguration configuration) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                configuration,
+                new ResponseDemultiplexerRegistry(),
+                new LocalServiceRegistry(),
+                new Ros2MessageSerializationUtils());
+    }
+
+    /**
+     * Creates a new instance of the client
+     *
+     * @param demultiplexers registry of responses subscriptions which client shares with other
+     *     clients of the same service
+     * @param localServices services in this JVM to which requests can be passed directly
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceClientImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceClientConfiguration configuration,
+            ResponseDemultiplexerRegistry demultiplexers,
+            LocalServiceRegistry localServices,
+            Ros2MessageSerializationUtils serializationUtils) {
         this.jros2Client = jros2Client;
+        this.demultiplexers = demultiplexers;
+        this.localServices = localServices;
+        this.serializationUtils = serializationUtils;
         this.serviceDefinition = serviceDefinition;
         this.serviceName = serviceName;
         this.rosNameMapper = rosNameMapper;
+        pendingRequests = new PendingRequestTable<>(configuration.maxPendingRequests());
+        defaultTimeout = configuration.defaultTimeout();
+        inFlightLimiter =
+                new InFlightLimiter<>(
+                        configuration.maxInFlightRequests(),
+                        waiting -> ADMISSION_EXECUTOR.execute(() -> onAdmitted(waiting)));
+        overflowPolicy = configuration.overflowPolicy();
+        inFlightQueue =
+                overflowPolicy == OverflowPolicy.DROP_OLDEST
+                        ? Optional.of(
+                                new InFlightQueue<>(
+                                        configuration.maxInFlightRequests(),
+                                        request -> request.future.isDone()))
+                        : Optional.empty();
+        responseCache =
+                configuration.responseCacheSize() > 0
+                        ? Optional.of(
+                                new ResponseCache(
+                                        configuration.responseCacheSize(),
+                                        configuration.responseCacheTtl()))
+                        : Optional.empty();
+        coalesceRequests = configuration.coalesceRequests();
+        responsesPrefetch = configuration.responsesPrefetch();
+        localDispatch = configuration.localDispatch();
         metricAttributes =
                 Attributes.builder()
                         .putAll(JRos2ClientConstants.METRIC_ATTRS)
@@ -125,36 +281,428 @@ public class JRos2ServiceClientImpl<R extends Message, A extends Message> extend
     /** {@inheritDoc} */
     @Override
     public CompletableFuture<A> sendRequestAsync(R requestMessage) {
+        return sendRequestAsync(requestMessage, defaultTimeout);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompletableFuture<A> sendRequestAsync(R requestMessage, Duration timeout) {
+        validateTimeout(timeout);
+        return sendRequestAsync(requestMessage, Optional.of(timeout));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<CompletableFuture<A>> sendAllAsync(List<R> requestMessages) {
+        return sendAllAsync(requestMessages, defaultTimeout);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<CompletableFuture<A>> sendAllAsync(List<R> requestMessages, Duration timeout) {
+        validateTimeout(timeout);
+        return sendAllAsync(requestMessages, Optional.of(timeout));
+    }
+
+    private void validateTimeout(Duration timeout) {
+        Preconditions.notNull(timeout, "Timeout is missing");
+        Preconditions.isTrue(
+                !timeout.isNegative() && !timeout.isZero(), "Timeout must be positive");
+    }
+
+    private CompletableFuture<A> sendRequestAsync(R requestMessage, Optional<Duration> timeout) {
         LOGGER.entering("sendRequest " + serviceName);
         start();
-        var requestId = requestCounter.incrementAndGet();
+        var localService = findLocalService();
+        if (localService != null) {
+            LOGGER.exiting("sendRequest " + serviceName);
+            return sendLocalRequest(localService, requestMessage, timeout);
+        }
         var data = serializationUtils.write(requestMessage);
-        LOGGER.fine("Submitting request for {0}", serviceName);
-        REQUESTS_METER.add(1, metricAttributes);
-        requestsPublisher.submit(newMessage(requestId, data));
-
-        // register a new subscriber
+        var requestKey = newRequestKey(data);
+        var cachedResponse = findCachedResponse(requestKey);
+        if (cachedResponse != null) {
+            LOGGER.exiting("sendRequest " + serviceName);
+            return CompletableFuture.completedFuture(cachedResponse);
+        }
         var future = new CompletableFuture<A>();
-        pendingRequests.put(requestId, new PendingRequest<A>(future));
+        if (coalesceRequests) {
+            var attached = coalesce(requestKey, future, timeout);
+            if (attached != null) {
+                LOGGER.exiting("sendRequest " + serviceName);
+                return attached;
+            }
+        }
+        var requestId = registration.toSeqNum(requestCounter.incrementAndGet());
+        var pendingRequest = new PendingRequest<A>(requestId, future, requestKey);
+        var timeoutTask =
+                timeout.map(t -> expireAfter(() -> onTimeout(pendingRequest, t), t)).orElse(null);
+        // requests completed not by the response (timed out, cancelled by the user etc) should
+        // not occupy the table
+        future.whenComplete(
+                (res, exc) -> {
+                    release(pendingRequest);
+                    if (timeoutTask != null) timeoutTask.cancel();
+                });
+
+        // register request before submitting it so that response cannot outrun it
+        if (admit(pendingRequest, data) && register(pendingRequest)) {
+            LOGGER.fine("Submitting request for {0}", serviceName);
+            REQUESTS_METER.add(1, metricAttributes);
+            registration.demultiplexer().submit(newMessage(requestId, data));
+        }
 
         LOGGER.exiting("sendRequest " + serviceName);
+        // coalesced requests are completed only by the response or timeout and not by the callers
+        return coalesceRequests ? future.copy() : future;
+    }
+
+    private List<CompletableFuture<A>> sendAllAsync(
+            List<R> requestMessages, Optional<Duration> timeout) {
+        LOGGER.entering("sendAll " + serviceName);
+        start();
+        var count = requestMessages.size();
+        var futures = new ArrayList<CompletableFuture<A>>(count);
+        if (count == 0) {
+            LOGGER.exiting("sendAll " + serviceName);
+            return futures;
+        }
+        var localService = findLocalService();
+        if (localService != null) {
+            for (int i = 0; i < count; i++)
+                futures.add(sendLocalRequest(localService, requestMessages.get(i), timeout));
+            LOGGER.exiting("sendAll " + serviceName);
+            return futures;
+        }
+        // serialize everything first so that failure does not leave part of the batch pending
+        var data = new byte[count][];
+        for (int i = 0; i < count; i++) data[i] = serializationUtils.write(requestMessages.get(i));
+
+        // reserve contiguous range of sequence numbers for the whole batch
+        var firstLocalRequestId = requestCounter.getAndAdd(count) + 1;
+        var batch = new ArrayList<PendingRequest<A>>(count);
+        var batchData = new ArrayList<byte[]>(count);
+        for (int i = 0; i < count; i++) {
+            var requestKey = newRequestKey(data[i]);
+            var cachedResponse = findCachedResponse(requestKey);
+            if (cachedResponse != null) {
+                futures.add(CompletableFuture.completedFuture(cachedResponse));
+                continue;
+            }
+            var future = new CompletableFuture<A>();
+            if (coalesceRequests) {
+                var attached = coalesce(requestKey, future, timeout);
+                if (attached != null) {
+                    futures.add(attached);
+                    continue;
+                }
+                futures.add(future.copy());
+            } else {
+                futures.add(future);
+            }
+            var requestId = registration.toSeqNum(firstLocalRequestId + i);
+            batch.add(new PendingRequest<A>(requestId, future, requestKey));
+            batchData.add(data[i]);
+        }
+        if (batch.isEmpty()) {
+            LOGGER.exiting("sendAll " + serviceName);
+            return futures;
+        }
+        // single timer task for the whole batch which is cancelled when last of its requests
+        // completes
+        var timeoutTask =
+                timeout.map(t -> expireAfter(() -> batch.forEach(r -> onTimeout(r, t)), t))
+                        .orElse(null);
+        var remaining = new AtomicInteger(batch.size());
+        for (var pendingRequest : batch) {
+            pendingRequest.future.whenComplete(
+                    (res, exc) -> {
+                        release(pendingRequest);
+                        if (remaining.decrementAndGet() == 0 && timeoutTask != null)
+                            timeoutTask.cancel();
+                    });
+        }
+
+        // RTPS publisher accepts messages one by one
+        var demultiplexer = registration.demultiplexer();
+        var submitted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            var pendingRequest = batch.get(i);
+            if (!admit(pendingRequest, batchData.get(i)) || !register(pendingRequest)) continue;
+            demultiplexer.submit(newMessage(pendingRequest.seqNum, batchData.get(i)));
+            submitted++;
+        }
+        LOGGER.fine("Submitted {0} requests for {1}", submitted, serviceName);
+        REQUESTS_METER.add(submitted, metricAttributes);
+
+        LOGGER.exiting("sendAll " + serviceName);
+        return futures;
+    }
+
+    /**
+     * @return service in this JVM to which requests should be passed directly or null if they
+     *     should be sent over RTPS
+     */
+    private JRos2ServiceImpl<R, A> findLocalService() {
+        if (localDispatch == LocalDispatch.DISABLED) return null;
+        return localServices.find(localServiceKey);
+    }
+
+    /** Pass request to the service in this JVM instead of sending it over RTPS */
+    private CompletableFuture<A> sendLocalRequest(
+            JRos2ServiceImpl<R, A> service, R requestMessage, Optional<Duration> timeout) {
+        LOGGER.fine("Passing request to the local service {0}", serviceName);
+        REQUESTS_METER.add(1, metricAttributes);
+        LOCAL_REQUESTS_METER.add(1, metricAttributes);
+        var requestedAt = Instant.now();
+        var isCopy = localDispatch == LocalDispatch.COPY;
+        var serviceFuture =
+                service.executeLocal(localClientId, isCopy ? copy(requestMessage) : requestMessage);
+        var future = isCopy ? serviceFuture.thenApply(this::copy) : serviceFuture;
+        future.whenComplete(
+                (res, exc) -> {
+                    if (exc != null) return;
+                    RESPONSES_METER.add(1, metricAttributes);
+                    GOAL_EXECUTION_TIME_METER.record(
+                            Duration.between(requestedAt, Instant.now()).toMillis(),
+                            metricAttributes);
+                });
+        if (timeout.isPresent()) {
+            var timeoutTask =
+                    expireAfter(
+                            () -> {
+                                var exception =
+                                        new TimeoutException(
+                                                "Local service %s did not respond within %s"
+                                                        .formatted(serviceName, timeout.get()));
+                                // service future is completed first, so that service does not
+                                // execute the request which waits in its queue once caller sees
+                                // the timeout
+                                var isExpired = serviceFuture.completeExceptionally(exception);
+                                isExpired |= future.completeExceptionally(exception);
+                                if (isExpired) TIMEOUTS_METER.add(1, metricAttributes);
+                            },
+                            timeout.get());
+            future.whenComplete((res, exc) -> timeoutTask.cancel());
+        }
         return future;
     }
 
+    /** Copy of the message which does not share any mutable state with it */
+    @SuppressWarnings("unchecked")
+    private <M extends Message> M copy(M message) {
+        return (M) serializationUtils.read(serializationUtils.write(message), message.getClass());
+    }
+
+    private RequestKey newRequestKey(byte[] data) {
+        return responseCache.isPresent() || coalesceRequests ? new RequestKey(data) : null;
+    }
+
+    /**
+     * @return response from the cache or null if there is no such
+     */
+    private A findCachedResponse(RequestKey requestKey) {
+        if (responseCache.isEmpty()) return null;
+        var data = responseCache.get().get(requestKey);
+        if (data == null) {
+            CACHE_MISSES_METER.add(1, metricAttributes);
+            return null;
+        }
+        LOGGER.fine("Found response for {0} in the cache", serviceName);
+        CACHE_HITS_METER.add(1, metricAttributes);
+        return readResponse(data);
+    }
+
+    private A readResponse(byte[] data) {
+        return serializationUtils.read(
+                data, serviceDefinition.getServiceResponseMessage().getMessageClass());
+    }
+
+    /**
+     * Attach to the identical request in flight. If there is no such, the future of the new request
+     * is registered as the one which others attach to until it completes.
+     *
+     * @param timeout timeout of the caller, when it expires the caller is completed exceptionally
+     *     and the request in flight is not attached to anymore
+     * @return future attached to the request in flight or null if new request should be sent
+     */
+    private CompletableFuture<A> coalesce(
+            RequestKey requestKey, CompletableFuture<A> future, Optional<Duration> timeout) {
+        while (true) {
+            var inFlight = inFlightRequests.putIfAbsent(requestKey, future);
+            if (inFlight == null) break;
+            if (!inFlight.isDone()) {
+                LOGGER.fine("Attaching to identical request in flight for {0}", serviceName);
+                COALESCED_METER.add(1, metricAttributes);
+                var attached = inFlight.copy();
+                timeout.ifPresent(t -> detachOnTimeout(requestKey, inFlight, attached, t));
+                return attached;
+            }
+            // request has completed but was not removed yet
+            if (inFlightRequests.replace(requestKey, inFlight, future)) break;
+        }
+        future.whenComplete((res, exc) -> inFlightRequests.remove(requestKey, future));
+        return null;
+    }
+
+    /**
+     * Detach caller from the request in flight when its own timeout expires. The response to that
+     * request is considered lost so identical requests which follow are sent again.
+     */
+    private void detachOnTimeout(
+            RequestKey requestKey,
+            CompletableFuture<A> inFlight,
+            CompletableFuture<A> attached,
+            Duration timeout) {
+        var timeoutTask =
+                expireAfter(
+                        () -> {
+                            if (attached.isDone()) return;
+                            // detach before the caller sees the timeout
+                            inFlightRequests.remove(requestKey, inFlight);
+                            var isExpired =
+                                    attached.completeExceptionally(
+                                            new TimeoutException(
+                                                    "Service %s did not respond within %s"
+                                                            .formatted(serviceName, timeout)));
+                            if (!isExpired) return;
+                            LOGGER.warning(
+                                    "Request attached to identical request in flight timed out");
+                            TIMEOUTS_METER.add(1, metricAttributes);
+                        },
+                        timeout);
+        attached.whenComplete((res, exc) -> timeoutTask.cancel());
+    }
+
+    /**
+     * Take in flight permit for the request or apply overflow policy to it
+     *
+     * @return true if request got the permit and can be sent right away
+     */
+    private boolean admit(PendingRequest<A> request, byte[] data) {
+        if (inFlightLimiter.tryAcquire()) {
+            inFlightQueue.ifPresent(queue -> queue.add(request));
+            return true;
+        }
+        switch (overflowPolicy) {
+            case FAIL:
+                LOGGER.fine("Rejecting request {0} because of the in flight limit", request.seqNum);
+                REJECTED_METER.add(1, metricAttributes);
+                request.future.completeExceptionally(
+                        new JRosServiceClientException(
+                                "Too many requests in flight for service %s, limit is %s",
+                                serviceName, inFlightLimiter.getLimit()));
+                return false;
+            case DROP_OLDEST:
+                var oldest = inFlightQueue.get().pollOldest();
+                if (oldest != null) {
+                    var isDropped =
+                            oldest.future.completeExceptionally(
+                                    new JRosServiceClientException(
+                                            "Request %s was dropped in favor of newer request,"
+                                                    + " in flight limit for service %s is %s",
+                                            oldest.seqNum,
+                                            serviceName,
+                                            inFlightLimiter.getLimit()));
+                    if (isDropped) {
+                        LOGGER.fine("Dropped request {0}", oldest.seqNum);
+                        REJECTED_METER.add(1, metricAttributes);
+                    }
+                    // permit of the dropped request is released once it completes, unless it
+                    // did not reach the table yet
+                    if (inFlightLimiter.tryAcquire()) {
+                        inFlightQueue.get().add(request);
+                        return true;
+                    }
+                }
+                // permit was taken by another request or its holders are still completing
+                LOGGER.fine("Request {0} is waiting for the in flight limit", request.seqNum);
+                inFlightLimiter.acquireAsync(new WaitingRequest<>(request, data));
+                return false;
+            default:
+                LOGGER.fine("Request {0} is waiting for the in flight limit", request.seqNum);
+                inFlightLimiter.acquireAsync(new WaitingRequest<>(request, data));
+                return false;
+        }
+    }
+
+    /** Send request which waited for the in flight permit */
+    private void onAdmitted(WaitingRequest<A> waitingRequest) {
+        var request = waitingRequest.request;
+        inFlightQueue.ifPresent(queue -> queue.add(request));
+        if (!register(request)) return;
+        LOGGER.fine("Submitting request {0} for {1}", request.seqNum, serviceName);
+        REQUESTS_METER.add(1, metricAttributes);
+        registration.demultiplexer().submit(newMessage(request.seqNum, waitingRequest.data));
+    }
+
+    /**
+     * Add request which holds the in flight permit to the pending requests table. Requests stay in
+     * the table (and hold the permit) until they are completed.
+     *
+     * @return false if request should not be sent, in that case its permit is released
+     */
+    private boolean register(PendingRequest<A> request) {
+        // in flight limit does not exceed the table capacity, so normally there is always a slot
+        if (!pendingRequests.put(request)) {
+            inFlightLimiter.release();
+            request.future.completeExceptionally(
+                    new JRosServiceClientException(
+                            "Too many pending requests for service %s, limit is %s",
+                            serviceName, pendingRequests.capacity()));
+            return false;
+        }
+        // request could be completed (timed out, cancelled by the user) while waiting for the
+        // permit
+        if (request.future.isDone()) {
+            release(request);
+            return false;
+        }
+        return true;
+    }
+
+    /** Remove request from the pending requests table and release its in flight permit */
+    private void release(PendingRequest<A> request) {
+        if (pendingRequests.remove(request)) inFlightLimiter.release();
+    }
+
+    private static HashedWheelTimer.Timeout expireAfter(Runnable task, Duration timeout) {
+        return TIMER.newTimeout(() -> EXPIRATION_EXECUTOR.execute(task), timeout);
+    }
+
+    private void onTimeout(PendingRequest<A> request, Duration timeout) {
+        var isExpired =
+                request.future.completeExceptionally(
+                        new TimeoutException(
+                                "Service %s did not respond to request %s within %s"
+                                        .formatted(serviceName, request.seqNum, timeout)));
+        if (!isExpired) return;
+        LOGGER.warning("Request {0} timed out", request.seqNum);
+        TIMEOUTS_METER.add(1, metricAttributes);
+    }
+
+    /** Close client and complete all pending requests exceptionally */
+    @Override
+    public void close() {
+        super.close();
+    }
+
     /**
      * @hidden exclude from javadoc
      */
     @Override
     protected void onClose() {
         LOGGER.entering("close " + serviceName);
-        requestsPublisher.close();
-        responsesSubscriber.getSubscription().ifPresent(Subscription::cancel);
-        pendingRequests
-                .values()
-                .forEach(
-                        result ->
-                                result.future.completeExceptionally(
-                                        new RuntimeException("Client has closed")));
+        inFlightGauge.close();
+        demultiplexers.unregister(registration);
+        inFlightLimiter.removeWaiting(
+                waiting ->
+                        waiting.request.future.completeExceptionally(
+                                new RuntimeException("Client has closed")));
+        pendingRequests.removeAll(
+                result ->
+                        result.future.completeExceptionally(
+                                new RuntimeException("Client has closed")));
         LOGGER.exiting("close " + serviceName);
     }
 
@@ -165,103 +713,97 @@ public class JRos2ServiceClientImpl<R extends Message, A extends Message> extend
     protected void onStart() {
         LOGGER.fine("Starting service client for {0}", serviceName);
         jros2Client.start();
-        setupResponseSubscriber(jros2Client.getRtpsTalkClient());
-        setupRequestPublisher(jros2Client.getRtpsTalkClient());
+        register();
+        inFlightGauge =
+                METER.gaugeBuilder(JRos2ServiceClientMetrics.REQUESTS_IN_FLIGHT_METRIC)
+                        .setDescription(
+                                JRos2ServiceClientMetrics.REQUESTS_IN_FLIGHT_METRIC_DESCRIPTION)
+                        .ofLongs()
+                        .buildWithCallback(
+                                measurement ->
+                                        measurement.record(
+                                                inFlightLimiter.getInFlightCount(),
+                                                metricAttributes));
     }
 
-    private void setupResponseSubscriber(RtpsTalkClient rtpsTalkClient) {
+    private void register() {
         var messageDescriptor = serviceDefinition.getServiceResponseMessage();
         var rmwMessageType = rosNameMapper.asFullyQualifiedDdsTypeName(messageDescriptor);
         var rmwTopicName =
                 rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, messageDescriptor);
-        responsesSubscriber =
-                new SimpleSubscriber<>() {
+        var requestMessageDescriptor = serviceDefinition.getServiceRequestMessage();
+        var rmwRequestMessageType =
+                rosNameMapper.asFullyQualifiedDdsTypeName(requestMessageDescriptor);
+        var rmwRequestTopicName =
+                rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, requestMessageDescriptor);
+        var listener =
+                new ResponseListener() {
                     @Override
-                    public void onNext(RtpsTalkDataMessage message) {
-                        LOGGER.entering("onNext " + serviceName);
+                    public void onResponse(long requestId, RtpsTalkDataMessage message) {
+                        LOGGER.entering("onResponse " + serviceName);
                         RESPONSES_METER.add(1, metricAttributes);
                         try {
-                            var requestId = utils.findRequestId(message).orElse(null);
-                            if (requestId == null) {
-                                LOGGER.warning("Received response without request id, ignoring it");
-                                return;
-                            }
-                            if (!pendingRequests.containsKey(requestId)) {
+                            var result = pendingRequests.remove(requestId);
+                            if (result == null) {
                                 LOGGER.warning(
                                         "Cannot match received response with any known"
                                                 + " requests. Ignoring response {0}...",
                                         requestId);
                                 return;
                             }
+                            inFlightLimiter.release();
                             LOGGER.fine("Received result for goal id {0}", requestId);
-                            var result = pendingRequests.get(requestId);
                             GOAL_EXECUTION_TIME_METER.record(
                                     Duration.between(result.requestedAt, Instant.now()).toMillis(),
                                     metricAttributes);
                             var data = message.data().orElse(null);
                             if (data == null) {
                                 LOGGER.warning("RTPS message has no data in it, ignoring it");
+                                result.future.completeExceptionally(
+                                        new JRosServiceClientException(
+                                                "Received response without data for request %s",
+                                                requestId));
                                 return;
                             }
-                            var response =
-                                    serializationUtils.read(
-                                            data,
-                                            serviceDefinition
-                                                    .getServiceResponseMessage()
-                                                    .getMessageClass());
+                            var response = readResponse(data);
+                            if (responseCache.isPresent())
+                                responseCache.get().put(result.requestKey, data);
                             result.future.complete(response);
                         } finally {
-                            // request next message
-                            getSubscription().get().request(1);
-                            LOGGER.exiting("onNext " + serviceName);
+                            LOGGER.exiting("onResponse " + serviceName);
                         }
                     }
 
                     @Override
                     public void onError(Throwable throwable) {
-                        super.onError(throwable);
-                        pendingRequests
-                                .values()
-                                .forEach(res -> res.future.completeExceptionally(throwable));
+                        pendingRequests.removeAll(
+                                res -> {
+                                    inFlightLimiter.release();
+                                    res.future.completeExceptionally(throwable);
+                                });
                     }
                 };
-        LOGGER.fine("Registering subscriber for {0} with type {1}", rmwTopicName, rmwMessageType);
-        var entityId =
-                rtpsTalkClient.subscribe(
+        registration =
+                demultiplexers.register(
+                        jros2Client,
                         rmwTopicName,
                         rmwMessageType,
-                        DdsRpcUtils.DEFAULT_SUBSCRIBER_QOS,
-                        responsesSubscriber);
-        clientGuid = newClientGuid(rtpsTalkClient.getConfiguration().guidPrefix(), entityId);
-    }
-
-    private void setupRequestPublisher(RtpsTalkClient rtpsTalkClient) {
-        var messageDescriptor = serviceDefinition.getServiceRequestMessage();
-        var rmwMessageType = rosNameMapper.asFullyQualifiedDdsTypeName(messageDescriptor);
-        var rmwTopicName =
-                rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, messageDescriptor);
-        requestsPublisher = new SubmissionPublisher<RtpsTalkDataMessage>();
-        LOGGER.fine("Registering publisher for {0} with type {1}", rmwTopicName, rmwMessageType);
-        rtpsTalkClient.publish(
-                rmwTopicName,
-                rmwMessageType,
-                RmwConstants.DEFAULT_PUBLISHER_QOS,
-                requestsPublisher);
+                        rmwRequestTopicName,
+                        rmwRequestMessageType,
+                        responsesPrefetch,
+                        metricAttributes,
+                        listener);
+        identityTemplate = new SampleIdentityTemplate(registration.demultiplexer().getGuid());
+        localServiceKey =
+                new LocalServiceRegistry.Key(
+                        jros2Client.getRtpsTalkClient().getConfiguration().domainId(),
+                        rmwRequestTopicName,
+                        rmwRequestMessageType);
+        // scheduled by the service same as requests received from RTPS
+        localClientId = ClientId.fromIdentity(registration.demultiplexer().getGuid());
     }
 
     private RtpsTalkDataMessage newMessage(long requestId, byte[] data) {
-        var params =
-                new Parameters(
-                        Map.of(
-                                UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY,
-                                new SampleIdentity(clientGuid, requestId).toByteArray()));
-        return new RtpsTalkDataMessage(params, data);
-    }
-
-    private byte[] newClientGuid(byte[] guidPrefix, int entityId) {
-        var clientGuid = ByteBuffer.allocate(16);
-        clientGuid.put(guidPrefix);
-        clientGuid.putInt(entityId);
-        return clientGuid.array();
+        return new RtpsTalkDataMessage(identityTemplate.newParameters(requestId), data);
     }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientImpl;
+import id.jros2client.impl.rmw.DdsNameMapper;
+import id.jroscommon.RosName;
+import id.jrosmessages.Message;
+import id.xfunction.Preconditions;
+import id.xfunction.concurrent.NamedThreadFactory;
+import id.xfunction.logging.XLogger;
+import id.xfunction.util.IdempotentService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import pinorobotics.jros2services.JRos2Service;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jros2services.JRos2ServiceHost;
+import pinorobotics.jros2services.ServiceHandler;
+import pinorobotics.jrosservices.msgs.ServiceDefinition;
+
+/**
+ * @author lambdaprime intid@protonmail.com
+ */
+public class JRos2ServiceHostImpl extends IdempotentService implements JRos2ServiceHost {
+
+    private static final XLogger LOGGER = XLogger.getLogger(JRos2ServiceHostImpl.class);
+    private static final AtomicInteger HOST_COUNT = new AtomicInteger();
+    private static final Duration TERMINATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private final JRos2ClientImpl jros2Client;
+    private final DdsNameMapper rosNameMapper;
+    private final BufferPool bufferPool;
+    private final ExecutorService dispatcher;
+    private final SharedResources resources;
+    // guarded by this
+    private final List<JRos2ServiceImpl<?, ?>> services = new ArrayList<>();
+    private boolean isStarted;
+    private boolean isClosed;
+
+    /**
+     * @param bufferPool pool of the serialization buffers shared by the services
+     * @param resources resources shared with the services of other hosts
+     * @param dispatcherThreads number of threads which execute handlers of all services
+     */
+    public JRos2ServiceHostImpl(
+            JRos2ClientImpl jros2Client,
+            DdsNameMapper rosNameMapper,
+            BufferPool bufferPool,
+            SharedResources resources,
+            int dispatcherThreads) {
+        Preconditions.isTrue(dispatcherThreads > 0, "dispatcherThreads must be positive");
+        this.jros2Client = jros2Client;
+        this.rosNameMapper = rosNameMapper;
+        this.bufferPool = bufferPool;
+        dispatcher =
+                Executors.newFixedThreadPool(
+                        dispatcherThreads,
+                        new NamedThreadFactory(
+                                "jros2services-host-" + HOST_COUNT.incrementAndGet()));
+        this.resources = resources.withDispatcher(dispatcher);
+    }
+
+    @Override
+    public <R extends Message, A extends Message> JRos2Service<R, A> addService(
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            ServiceHandler<R, A> handler) {
+        return addService(
+                serviceDefinition,
+                serviceName,
+                new JRos2ServiceConfiguration.Builder().build(),
+                handler);
+    }
+
+    @Override
+    public synchronized <R extends Message, A extends Message> JRos2Service<R, A> addService(
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            JRos2ServiceConfiguration configuration,
+            ServiceHandler<R, A> handler) {
+        Preconditions.isTrue(!isClosed, "Service host is closed");
+        var service =
+                new JRos2ServiceImpl<>(
+                        jros2Client,
+                        serviceDefinition,
+                        serviceName,
+                        rosNameMapper,
+                        configuration,
+                        resources,
+                        handler,
+                        bufferPool.newSerializationUtils());
+        services.add(service);
+        service.setCloseListener(() -> onServiceClosed(service));
+        if (isStarted) service.start();
+        return service;
+    }
+
+    @Override
+    protected synchronized void onStart() {
+        LOGGER.fine("Start {0} services", services.size());
+        isStarted = true;
+        services.forEach(JRos2Service::start);
+    }
+
+    @Override
+    protected void onClose() {
+        List<JRos2ServiceImpl<?, ?>> services;
+        synchronized (this) {
+            isClosed = true;
+            services = List.copyOf(this.services);
+        }
+        LOGGER.fine("Stop {0} services", services.size());
+        services.forEach(JRos2Service::close);
+        // requests which services accepted already may still wait in their queues, dispatcher is
+        // shutdown and responses publishers are closed only once they are executed
+        awaitTermination(services);
+        services.forEach(JRos2ServiceImpl::closePublisher);
+        dispatcher.shutdown();
+    }
+
+    private void onServiceClosed(JRos2ServiceImpl<?, ?> service) {
+        synchronized (this) {
+            // when host is closing, it waits for the requests of the service itself
+            if (isClosed) return;
+            services.remove(service);
+        }
+        awaitTermination(List.of(service));
+        service.closePublisher();
+    }
+
+    private void awaitTermination(List<JRos2ServiceImpl<?, ?>> services) {
+        var deadline = Instant.now().plus(TERMINATION_TIMEOUT);
+        try {
+            for (var service : services) {
+                if (service.awaitTermination(Duration.between(Instant.now(), deadline))) continue;
+                LOGGER.warning(
+                        "Requests of the services are not executed within {0}, their responses are"
+                                + " dropped",
+                        TERMINATION_TIMEOUT);
+                return;
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warning("Interrupted while waiting for the requests of the services");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Start all services of the host
+     *
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void start() {
+        super.start();
+    }
+
+    /**
+     * Stop all services of the host
+     *
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void close() {
+        super.close();
+    }
+}
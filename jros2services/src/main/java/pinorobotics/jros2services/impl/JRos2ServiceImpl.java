@@ -24,6 +24,7 @@ import id.jros2client.impl.rmw.RmwConstants;
 import id.jros2messages.Ros2MessageSerializationUtils;
 import id.jroscommon.RosName;
 import id.jrosmessages.Message;
+import id.xfunction.Preconditions;
 import id.xfunction.concurrent.flow.SimpleSubscriber;
 import id.xfunction.logging.XLogger;
 import id.xfunction.util.IdempotentService;
@@ -31,21 +32,30 @@ import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.LongCounter;
 import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
 import io.opentelemetry.api.metrics.Meter;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Flow.Subscription;
-import java.util.concurrent.SubmissionPublisher;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import pinorobotics.jros2services.AsyncServiceHandler;
+import pinorobotics.jros2services.BatchServiceHandler;
 import pinorobotics.jros2services.JRos2Service;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
 import pinorobotics.jros2services.ServiceHandler;
+import pinorobotics.jros2services.ShardKeyExtractor;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils.IdentityResult;
 import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
 import pinorobotics.jrosservices.metrics.JRosServiceMetrics;
 import pinorobotics.jrosservices.msgs.ServiceDefinition;
 import pinorobotics.rtpstalk.RtpsTalkClient;
-import pinorobotics.rtpstalk.messages.Parameters;
 import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
 
 /**
@@ -74,18 +84,71 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
                             JRosServiceMetrics.SERVICE_GOAL_EXECUTION_TIME_METRIC_DESCRIPTION)
                     .ofLongs()
                     .build();
+    private static final LongUpDownCounter ASYNC_PENDING_METER =
+            METER.upDownCounterBuilder(JRos2ServiceMetrics.ASYNC_REQUESTS_PENDING_METRIC)
+                    .setDescription(JRos2ServiceMetrics.ASYNC_REQUESTS_PENDING_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter DUPLICATE_REQUESTS_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REQUESTS_DUPLICATE_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REQUESTS_DUPLICATE_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter REPLAYED_REPLIES_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REPLIES_REPLAYED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REPLIES_REPLAYED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final HashedWheelTimer BATCH_TIMER =
+            new HashedWheelTimer("jros2services-batch-timer", Duration.ofMillis(1), 512);
+
+    /** Request of the client together with the way its reply is delivered */
+    private interface ClientRequest<R, A> {
+        ClientId clientId();
+
+        /**
+         * @return false if request should not be executed (it is a copy of another request, it has
+         *     timed out etc)
+         */
+        boolean accept();
+
+        R read() throws Exception;
+
+        void reply(A responseMessage) throws Exception;
+
+        /** Handler failed to execute the request */
+        void fail(Throwable exception);
+
+        /** Executor did not execute the request */
+        void shed();
+    }
+
+    /** How requests are executed by the handler of the service */
+    private interface RequestExecution<R, A> {
+        /** Pass request to the executor */
+        void submit(ClientRequest<R, A> request);
+
+        /** Pass requests which wait to be submitted (for example in the batch) to the executor */
+        default void flush() {}
+    }
 
-    private Ros2MessageSerializationUtils serializationUtils = new Ros2MessageSerializationUtils();
+    private Ros2MessageSerializationUtils serializationUtils;
     private DdsRpcUtils utils = new DdsRpcUtils();
     private JRos2ClientImpl jros2Client;
     private ServiceDefinition<R, A> serviceDefinition;
     private ExecutorService executor;
     private RosName serviceName;
-    private ServiceHandler<R, A> handler;
     private DdsNameMapper rosNameMapper;
-    private SubmissionPublisher<RtpsTalkDataMessage> responsesPublisher;
+    private JRos2ServiceConfiguration configuration;
+    private ResponsePublisherPool publisherPool;
+    private boolean ownsPublisherPool;
+    private ResponsePublisher responsesPublisher;
     private SimpleSubscriber<RtpsTalkDataMessage> requestsSubscriber;
     private Attributes metricAttributes;
+    private boolean ownsExecutor;
+    private RequestExecution<R, A> execution;
+    private Optional<DeduplicationWindow> deduplicationWindow = Optional.empty();
+    private Optional<ReplySequencer> replySequencer = Optional.empty();
+    private Optional<LocalServiceRegistry> localServices;
+    private LocalServiceRegistry.Key localServiceKey;
+    private Optional<Runnable> closeListener = Optional.empty();
 
     /**
      * @param handler service handler which will process all incoming requests
@@ -97,17 +160,240 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
             DdsNameMapper rosNameMapper,
             ExecutorService executor,
             ServiceHandler<R, A> handler) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                executor,
+                handler,
+                new Ros2MessageSerializationUtils());
+    }
+
+    /**
+     * Creates service which executes the handler in its own executor according to the configuration
+     *
+     * @param resources resources shared with other services
+     * @param handler service handler which will process all incoming requests
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources,
+            ServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                HandlerExecutors.newExecutor(configuration, serviceName, resources),
+                handler,
+                serializationUtils,
+                configuration,
+                resources);
+        ownsExecutor = true;
+    }
+
+    /**
+     * Creates service which collects requests into batches and executes them with the handler in
+     * its own executor according to the configuration
+     *
+     * @param resources resources shared with other services
+     * @param handler service handler which will process all incoming requests in batches
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources,
+            BatchServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                HandlerExecutors.newExecutor(configuration, serviceName, resources),
+                serializationUtils,
+                configuration,
+                resources);
+        ownsExecutor = true;
+        execution = new BatchExecution(handler);
+    }
+
+    /**
+     * Creates service which executes the handler asynchronously. Executor selected by the
+     * configuration only calls the handler, responses are sent when futures returned by it
+     * complete.
+     *
+     * @param resources resources shared with other services
+     * @param handler service handler which will process all incoming requests
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources,
+            AsyncServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                HandlerExecutors.newExecutor(configuration, serviceName, resources),
+                serializationUtils,
+                configuration,
+                resources);
+        ownsExecutor = true;
+        execution = new AsyncExecution(handler);
+    }
+
+    /**
+     * Creates service which executes requests with the same key one after another in the shard
+     * assigned to the key, and requests of different shards in parallel.
+     *
+     * <p>Requests are deserialized before they are queued, since their keys are needed to select
+     * the shard.
+     *
+     * @param resources resources shared with other services
+     * @param keyExtractor extractor of the request keys
+     * @param handler service handler which will process all incoming requests
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources,
+            ShardKeyExtractor<R> keyExtractor,
+            ServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                HandlerExecutors.newShardedExecutor(configuration, serviceName, resources),
+                serializationUtils,
+                configuration,
+                resources);
+        ownsExecutor = true;
+        execution = new ShardedExecution(handler, keyExtractor, (ShardedExecutor) executor);
+    }
+
+    /**
+     * @param executor executor of the handler, it is not shutdown when service is closed
+     * @param handler service handler which will process all incoming requests
+     * @param serializationUtils serializer of the requests and responses
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            ExecutorService executor,
+            ServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                executor,
+                handler,
+                serializationUtils,
+                new JRos2ServiceConfiguration.Builder().build(),
+                SharedResources.NONE);
+    }
+
+    /**
+     * @param executor executor of the handler, it is not shutdown when service is closed
+     * @param handler service handler which will process all incoming requests
+     * @param serializationUtils serializer of the requests and responses
+     * @param configuration service configuration, settings of the executor in it are ignored
+     * @param resources resources shared with other services
+     */
+    public JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            ExecutorService executor,
+            ServiceHandler<R, A> handler,
+            Ros2MessageSerializationUtils serializationUtils,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources) {
+        this(
+                jros2Client,
+                serviceDefinition,
+                serviceName,
+                rosNameMapper,
+                executor,
+                serializationUtils,
+                configuration,
+                resources);
+        execution = new SyncExecution(handler);
+    }
+
+    /** Creates service without the handler, it is set by the caller */
+    private JRos2ServiceImpl(
+            JRos2ClientImpl jros2Client,
+            ServiceDefinition<R, A> serviceDefinition,
+            RosName serviceName,
+            DdsNameMapper rosNameMapper,
+            ExecutorService executor,
+            Ros2MessageSerializationUtils serializationUtils,
+            JRos2ServiceConfiguration configuration,
+            SharedResources resources) {
         this.jros2Client = jros2Client;
+        this.serializationUtils = serializationUtils;
         this.serviceDefinition = serviceDefinition;
         this.serviceName = serviceName;
         this.rosNameMapper = rosNameMapper;
         this.executor = executor;
-        this.handler = handler;
         metricAttributes =
                 Attributes.builder()
                         .putAll(JRos2ClientConstants.METRIC_ATTRS)
                         .put("service", serviceName.toGlobalName())
                         .build();
+        this.configuration = configuration;
+        localServices = resources.localServices();
+        publisherPool =
+                resources
+                        .publishers()
+                        .orElseGet(
+                                () -> {
+                                    ownsPublisherPool = true;
+                                    return new ResponsePublisherPool(1);
+                                });
+        if (configuration.orderedReplies())
+            replySequencer =
+                    Optional.of(
+                            new ReplySequencer(
+                                    configuration.reorderBufferSize(),
+                                    reply -> responsesPublisher.publish(reply),
+                                    metricAttributes));
+        if (configuration.deduplicationWindowSize() > 0)
+            deduplicationWindow =
+                    Optional.of(
+                            new DeduplicationWindow(
+                                    configuration.deduplicationWindowSize(),
+                                    configuration.deduplicationWindowBytes(),
+                                    configuration.deduplicationWindowTtl()));
     }
 
     @Override
@@ -117,6 +403,40 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
         setupResponsePublisher(jros2Client.getRtpsTalkClient());
         // subscribe to requests at the end when we ready to process them
         setupRequestSubscriber(jros2Client.getRtpsTalkClient());
+        localServices.ifPresent(registry -> registerLocalService(registry));
+    }
+
+    /** Let clients from the same JVM pass requests to this service directly */
+    private void registerLocalService(LocalServiceRegistry registry) {
+        var messageDescriptor = serviceDefinition.getServiceRequestMessage();
+        localServiceKey =
+                new LocalServiceRegistry.Key(
+                        jros2Client.getRtpsTalkClient().getConfiguration().domainId(),
+                        rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, messageDescriptor),
+                        rosNameMapper.asFullyQualifiedDdsTypeName(messageDescriptor));
+        registry.register(localServiceKey, this);
+    }
+
+    /**
+     * Execute request of the client from the same JVM, which is passed to the service directly
+     * instead of RTPS. Request is executed same as the requests received over RTPS (requests to the
+     * batch services join their batches), but deduplication and order of the replies do not apply
+     * to it since it has no sample identity.
+     *
+     * @param clientId client which is used to schedule the request
+     * @return future which is completed with the response of the handler, or exceptionally if
+     *     handler fails or executor sheds the request
+     */
+    public CompletableFuture<A> executeLocal(ClientId clientId, R request) {
+        REQUESTS_METER.add(1, metricAttributes);
+        var future = new CompletableFuture<A>();
+        try {
+            execution.submit(new LocalRequest(clientId, request, future));
+        } catch (Exception e) {
+            REQUESTS_FAILED_METER.add(1, metricAttributes);
+            future.completeExceptionally(e);
+        }
+        return future;
     }
 
     private void setupRequestSubscriber(RtpsTalkClient rtpsTalkClient) {
@@ -124,8 +444,9 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
         var rmwMessageType = rosNameMapper.asFullyQualifiedDdsTypeName(messageDescriptor);
         var rmwTopicName =
                 rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, messageDescriptor);
+        var demandWindow = new DemandWindow(configuration.requestsPrefetch());
         requestsSubscriber =
-                new SimpleSubscriber<>() {
+                new SimpleSubscriber<RtpsTalkDataMessage>() {
                     @Override
                     public void onNext(RtpsTalkDataMessage message) {
                         LOGGER.entering("onNext " + serviceName);
@@ -141,52 +462,36 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
                                 LOGGER.warning("RTPS message has no data in it, ignoring it");
                                 return;
                             }
-                            executor.submit(
-                                    () -> {
-                                        try {
-                                            var request =
-                                                    serializationUtils.read(
-                                                            requestData,
-                                                            serviceDefinition
-                                                                    .getServiceRequestMessage()
-                                                                    .getMessageClass());
-                                            LOGGER.fine("Execute new request for {0}", serviceName);
-                                            var responseMessage = runHandler(request);
-                                            var respomseData =
-                                                    serializationUtils.write(responseMessage);
-                                            REQUESTS_METER.add(1, metricAttributes);
-                                            responsesPublisher.submit(
-                                                    new RtpsTalkDataMessage(
-                                                            new Parameters(
-                                                                    identityResult
-                                                                            .parameterIds()
-                                                                            .stream()
-                                                                            .collect(
-                                                                                    Collectors
-                                                                                            .toMap(
-                                                                                                    k ->
-                                                                                                            k,
-                                                                                                    v ->
-                                                                                                            identityResult
-                                                                                                                    .identity()))),
-                                                            respomseData));
-                                        } catch (Exception e) {
-                                            REQUESTS_FAILED_METER.add(1, metricAttributes);
-                                            LOGGER.severe(
-                                                    "Service handler exception: {0}",
-                                                    e.getMessage());
-                                            LOGGER.fine(e);
-                                        }
-                                    });
+                            // copies of the requests are dropped before queueing them
+                            if (isDuplicate(identityResult, false)) return;
+                            if (replySequencer.isPresent()
+                                    && !replySequencer.get().register(identityResult.identity())) {
+                                DUPLICATE_REQUESTS_METER.add(1, metricAttributes);
+                                LOGGER.fine(
+                                        "Dropping copy of the request which waits for the reply");
+                                return;
+                            }
+                            var request = new RemoteRequest(identityResult, requestData);
+                            try {
+                                execution.submit(request);
+                            } catch (Exception e) {
+                                // copies of the request and replies to the later ones should not
+                                // wait for it
+                                request.fail(e);
+                                throw e;
+                            }
                         } catch (Exception e) {
-                            e.printStackTrace();
+                            REQUESTS_FAILED_METER.add(1, metricAttributes);
+                            LOGGER.severe("Could not accept the request: {0}", e.getMessage());
+                            LOGGER.fine(e);
                         } finally {
-                            // request next message
-                            getSubscription().get().request(1);
+                            // request next messages
+                            var count = demandWindow.onConsumed();
+                            if (count > 0) getSubscription().get().request(count);
                             LOGGER.exiting("onNext " + serviceName);
                         }
                     }
-                };
+                }.withInitialRequest(demandWindow.getPrefetch());
 
         LOGGER.fine(
                 "Register requests subscriber for {0} with type {1}", rmwTopicName, rmwMessageType);
@@ -197,24 +502,387 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
                 requestsSubscriber);
     }
 
-    private A runHandler(R request) throws Exception {
-        var startAt = Instant.now();
-        try {
-            return handler.execute(request);
-        } finally {
-            GOAL_EXECUTION_TIME_METER.record(
-                    Duration.between(startAt, Instant.now()).toMillis(), metricAttributes);
+    /** Request received over RTPS, it is replied over RTPS */
+    private class RemoteRequest implements ClientRequest<R, A> {
+        private final IdentityResult identityResult;
+        private final byte[] requestData;
+        private R request;
+
+        RemoteRequest(IdentityResult identityResult, byte[] requestData) {
+            this.identityResult = identityResult;
+            this.requestData = requestData;
+        }
+
+        @Override
+        public ClientId clientId() {
+            return ClientId.fromIdentity(identityResult.identity());
+        }
+
+        @Override
+        public boolean accept() {
+            return !isDuplicate(identityResult, true);
+        }
+
+        /** Request is read once, even when it is needed before it is queued */
+        @Override
+        public R read() {
+            if (request == null) request = readRequest(requestData);
+            return request;
+        }
+
+        @Override
+        public void reply(A responseMessage) {
+            publishResponse(identityResult, responseMessage);
+        }
+
+        @Override
+        public void fail(Throwable exception) {
+            forget(identityResult);
+        }
+
+        @Override
+        public void shed() {
+            cancelReply(identityResult);
+        }
+    }
+
+    /** Request of the client from the same JVM, it is replied by completing its future */
+    private class LocalRequest implements ClientRequest<R, A> {
+        private final ClientId clientId;
+        private final R request;
+        private final CompletableFuture<A> future;
+
+        LocalRequest(ClientId clientId, R request, CompletableFuture<A> future) {
+            this.clientId = clientId;
+            this.request = request;
+            this.future = future;
+        }
+
+        @Override
+        public ClientId clientId() {
+            return clientId;
+        }
+
+        /** Request could time out while waiting in the queue */
+        @Override
+        public boolean accept() {
+            return !future.isDone();
+        }
+
+        @Override
+        public R read() {
+            return request;
+        }
+
+        @Override
+        public void reply(A responseMessage) {
+            future.complete(responseMessage);
+        }
+
+        @Override
+        public void fail(Throwable exception) {
+            future.completeExceptionally(exception);
+        }
+
+        @Override
+        public void shed() {
+            future.completeExceptionally(
+                    new RejectedExecutionException(
+                            "Service %s shed the request".formatted(serviceName)));
+        }
+    }
+
+    /** Each request is executed by {@link ServiceHandler} in its own task */
+    private class SyncExecution implements RequestExecution<R, A> {
+        private final ServiceHandler<R, A> handler;
+
+        SyncExecution(ServiceHandler<R, A> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void submit(ClientRequest<R, A> request) {
+            executor.execute(newTask(request));
+        }
+
+        protected RequestTask newTask(ClientRequest<R, A> request) {
+            return new RequestTask(clientIdOf(request), () -> execute(request), request::shed);
+        }
+
+        private void execute(ClientRequest<R, A> request) {
+            if (!request.accept()) return;
+            try {
+                var requestMessage = request.read();
+                LOGGER.fine("Execute new request for {0}", serviceName);
+                var startAt = Instant.now();
+                A responseMessage;
+                try {
+                    responseMessage = handler.execute(requestMessage);
+                } finally {
+                    GOAL_EXECUTION_TIME_METER.record(
+                            Duration.between(startAt, Instant.now()).toMillis(), metricAttributes);
+                }
+                REQUESTS_METER.add(1, metricAttributes);
+                request.reply(responseMessage);
+            } catch (Exception e) {
+                onFailure(request, e);
+            }
+        }
+    }
+
+    /**
+     * Requests with the same key are executed one after another in the shard assigned to the key
+     */
+    private class ShardedExecution extends SyncExecution {
+        private final ShardKeyExtractor<R> keyExtractor;
+        private final ShardedExecutor shardedExecutor;
+
+        ShardedExecution(
+                ServiceHandler<R, A> handler,
+                ShardKeyExtractor<R> keyExtractor,
+                ShardedExecutor shardedExecutor) {
+            super(handler);
+            this.keyExtractor = keyExtractor;
+            this.shardedExecutor = shardedExecutor;
+        }
+
+        @Override
+        public void submit(ClientRequest<R, A> request) {
+            Object key;
+            try {
+                key = keyExtractor.getKey(request.read());
+            } catch (Exception e) {
+                request.fail(e);
+                REQUESTS_FAILED_METER.add(1, metricAttributes);
+                LOGGER.severe("Could not find shard of the request: {0}", e.getMessage());
+                LOGGER.fine(e);
+                return;
+            }
+            shardedExecutor.execute(key, newTask(request));
         }
     }
 
+    /**
+     * Each request is passed to {@link AsyncServiceHandler} in its own task and replied when the
+     * future returned by the handler completes
+     */
+    private class AsyncExecution implements RequestExecution<R, A> {
+        private final AsyncServiceHandler<R, A> handler;
+
+        AsyncExecution(AsyncServiceHandler<R, A> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void submit(ClientRequest<R, A> request) {
+            executor.execute(
+                    new RequestTask(clientIdOf(request), () -> execute(request), request::shed));
+        }
+
+        private void execute(ClientRequest<R, A> request) {
+            if (!request.accept()) return;
+            var startAt = Instant.now();
+            CompletableFuture<A> future;
+            try {
+                var requestMessage = request.read();
+                LOGGER.fine("Execute new request for {0}", serviceName);
+                future = handler.execute(requestMessage);
+                Preconditions.notNull(future, "Service handler returned null future");
+            } catch (Exception e) {
+                GOAL_EXECUTION_TIME_METER.record(
+                        Duration.between(startAt, Instant.now()).toMillis(), metricAttributes);
+                onFailure(request, e);
+                return;
+            }
+            ASYNC_PENDING_METER.add(1, metricAttributes);
+            // requests may complete in any order, each of them is measured and replied on its own
+            future.whenComplete(
+                    (responseMessage, exception) -> {
+                        ASYNC_PENDING_METER.add(-1, metricAttributes);
+                        GOAL_EXECUTION_TIME_METER.record(
+                                Duration.between(startAt, Instant.now()).toMillis(),
+                                metricAttributes);
+                        try {
+                            if (exception != null) throw exception;
+                            REQUESTS_METER.add(1, metricAttributes);
+                            request.reply(responseMessage);
+                        } catch (Throwable e) {
+                            onFailure(request, e);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Requests are collected into batches, each batch is executed by {@link BatchServiceHandler} in
+     * its own task. Replies of each batch are sent in the order of its requests.
+     */
+    private class BatchExecution implements RequestExecution<R, A> {
+        private final BatchServiceHandler<R, A> handler;
+        private final RequestBatcher<ClientRequest<R, A>> batcher;
+
+        BatchExecution(BatchServiceHandler<R, A> handler) {
+            this.handler = handler;
+            batcher =
+                    new RequestBatcher<>(
+                            BATCH_TIMER,
+                            configuration.maxBatchSize(),
+                            configuration.maxBatchDelay(),
+                            this::submitBatch,
+                            metricAttributes);
+        }
+
+        @Override
+        public void submit(ClientRequest<R, A> request) {
+            batcher.add(request);
+        }
+
+        @Override
+        public void flush() {
+            batcher.flush();
+        }
+
+        private void submitBatch(List<ClientRequest<R, A>> batch) {
+            try {
+                executor.execute(() -> execute(batch));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warning("Service executor rejected the batch, dropping it: {0}", e);
+                batch.forEach(ClientRequest::shed);
+            }
+        }
+
+        private void execute(List<ClientRequest<R, A>> batch) {
+            var accepted = new ArrayList<ClientRequest<R, A>>(batch.size());
+            var requests = new ArrayList<R>(batch.size());
+            for (var request : batch) {
+                if (!request.accept()) continue;
+                try {
+                    requests.add(request.read());
+                    accepted.add(request);
+                } catch (Exception e) {
+                    request.fail(e);
+                    REQUESTS_FAILED_METER.add(1, metricAttributes);
+                    LOGGER.severe("Could not read the request: {0}", e.getMessage());
+                    LOGGER.fine(e);
+                }
+            }
+            if (requests.isEmpty()) return;
+            LOGGER.fine("Execute batch of {0} requests for {1}", requests.size(), serviceName);
+            List<A> responses;
+            var startAt = Instant.now();
+            try {
+                responses = handler.execute(requests);
+                Preconditions.equals(
+                        requests.size(),
+                        responses.size(),
+                        "Batch service handler returned wrong number of responses");
+            } catch (Exception e) {
+                accepted.forEach(r -> r.fail(e));
+                REQUESTS_FAILED_METER.add(requests.size(), metricAttributes);
+                LOGGER.severe("Service handler exception: {0}", e.getMessage());
+                LOGGER.fine(e);
+                return;
+            } finally {
+                GOAL_EXECUTION_TIME_METER.record(
+                        Duration.between(startAt, Instant.now()).toMillis(), metricAttributes);
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                try {
+                    accepted.get(i).reply(responses.get(i));
+                } catch (Exception e) {
+                    accepted.get(i).fail(e);
+                    REQUESTS_FAILED_METER.add(1, metricAttributes);
+                    LOGGER.severe("Could not send the response: {0}", e.getMessage());
+                    LOGGER.fine(e);
+                }
+            }
+        }
+    }
+
+    /** Executors need clients of the requests only for fair scheduling */
+    private ClientId clientIdOf(ClientRequest<R, A> request) {
+        return configuration.fairScheduling() ? request.clientId() : ClientId.ANY;
+    }
+
+    private void onFailure(ClientRequest<R, A> request, Throwable exception) {
+        request.fail(exception);
+        REQUESTS_FAILED_METER.add(1, metricAttributes);
+        LOGGER.severe("Service handler exception: {0}", exception.getMessage());
+        LOGGER.fine(exception);
+    }
+
+    private R readRequest(byte[] requestData) {
+        return serializationUtils.read(
+                requestData, serviceDefinition.getServiceRequestMessage().getMessageClass());
+    }
+
+    /**
+     * @param register when true, request is added to the deduplication window unless it is a copy
+     * @return true if request is a copy of another request in the deduplication window. Copies of
+     *     the completed requests are replied with their remembered reply.
+     */
+    private boolean isDuplicate(IdentityResult identityResult, boolean register) {
+        if (deduplicationWindow.isEmpty()) return false;
+        var identity = identityResult.identity();
+        var duplicate =
+                register
+                        ? deduplicationWindow.get().register(identity)
+                        : deduplicationWindow.get().find(identity);
+        if (duplicate.isEmpty()) return false;
+        var reply = duplicate.get().reply();
+        if (reply.isPresent()) {
+            REPLAYED_REPLIES_METER.add(1, metricAttributes);
+            LOGGER.fine("Replaying reply to the copy of completed request for {0}", serviceName);
+            publishReply(identityResult, reply.get());
+        } else {
+            DUPLICATE_REQUESTS_METER.add(1, metricAttributes);
+            LOGGER.fine("Dropping copy of the running request for {0}", serviceName);
+            if (register) cancelReply(identityResult);
+        }
+        return true;
+    }
+
+    /**
+     * Remove failed request from the deduplication window so that its copies are executed, and from
+     * the replies order
+     */
+    private void forget(IdentityResult identityResult) {
+        deduplicationWindow.ifPresent(window -> window.remove(identityResult.identity()));
+        cancelReply(identityResult);
+    }
+
+    /** Replies to the later requests of the same client should not wait for this request */
+    private void cancelReply(IdentityResult identityResult) {
+        replySequencer.ifPresent(sequencer -> sequencer.cancel(identityResult.identity()));
+    }
+
+    private void publishResponse(IdentityResult identityResult, A responseMessage) {
+        var respomseData = serializationUtils.write(responseMessage);
+        deduplicationWindow.ifPresent(
+                window -> window.complete(identityResult.identity(), respomseData));
+        publishReply(identityResult, respomseData);
+    }
+
+    private void publishReply(IdentityResult identityResult, byte[] respomseData) {
+        var reply =
+                new RtpsTalkDataMessage(
+                        identityResult.layout().newParameters(identityResult.identity()),
+                        respomseData);
+        if (replySequencer.isPresent())
+            replySequencer.get().complete(identityResult.identity(), reply);
+        else responsesPublisher.publish(reply);
+    }
+
     private void setupResponsePublisher(RtpsTalkClient rtpsTalkClient) {
         var messageDescriptor = serviceDefinition.getServiceResponseMessage();
         var rmwMessageType = rosNameMapper.asFullyQualifiedDdsTypeName(messageDescriptor);
         var rmwTopicName =
                 rosNameMapper.asFullyQualifiedDdsTopicName(serviceName, messageDescriptor);
         responsesPublisher =
-                new SubmissionPublisher<RtpsTalkDataMessage>(
-                        Executors.newCachedThreadPool(), 1_000);
+                publisherPool.newPublisher(
+                        configuration.responseBufferSize(),
+                        configuration.responseOfferTimeout(),
+                        metricAttributes);
         LOGGER.fine("Register publisher for {0} with type {1}", rmwTopicName, rmwMessageType);
         rtpsTalkClient.publish(
                 rmwTopicName,
@@ -227,8 +895,37 @@ public class JRos2ServiceImpl<R extends Message, A extends Message> extends Idem
     @Override
     protected void onClose() {
         LOGGER.fine("Stop service {0}", serviceName);
-        responsesPublisher.close();
+        localServices.ifPresent(registry -> registry.unregister(localServiceKey, this));
         requestsSubscriber.getSubscription().ifPresent(Subscription::cancel);
+        execution.flush();
+        if (ownsExecutor) executor.shutdown();
+        if (closeListener.isPresent()) closeListener.get().run();
+        else closePublisher();
+    }
+
+    /**
+     * Listener is called once service is closed instead of {@link #closePublisher()}, so that
+     * requests which service accepted already can be replied. Listener is responsible to close the
+     * publisher after {@link #awaitTermination(Duration)}.
+     */
+    void setCloseListener(Runnable closeListener) {
+        this.closeListener = Optional.of(closeListener);
+    }
+
+    /** Stop sending the responses of the closed service */
+    void closePublisher() {
+        responsesPublisher.close();
+        if (ownsPublisherPool) publisherPool.close();
+    }
+
+    /**
+     * Wait until requests which closed service accepted are executed. Responses of the asynchronous
+     * handlers may be still pending.
+     *
+     * @return false if timeout elapsed before that
+     */
+    boolean awaitTermination(Duration timeout) throws InterruptedException {
+        return executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
     }
 
     /**
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jrosmessages.Message;
+import id.xfunction.logging.XLogger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Services which run in this JVM, so that clients created by the same factory can pass requests to
+ * them directly.
+ *
+ * <p>Services are found by ROS2 domain, requests topic and requests type, same as their RTPS
+ * subscribers are found by the clients.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class LocalServiceRegistry {
+
+    private static final XLogger LOGGER = XLogger.getLogger(LocalServiceRegistry.class);
+
+    public record Key(int domainId, String topicName, String messageType) {}
+
+    private final Map<Key, JRos2ServiceImpl<?, ?>> services = new ConcurrentHashMap<>();
+
+    /** Register started service, if there is no other service registered already */
+    public void register(Key key, JRos2ServiceImpl<?, ?> service) {
+        var other = services.putIfAbsent(key, service);
+        if (other != null && other != service)
+            LOGGER.warning(
+                    "Service for {0} is registered already, requests to it are dispatched locally"
+                            + " only to the first one",
+                    key.topicName());
+    }
+
+    public void unregister(Key key, JRos2ServiceImpl<?, ?> service) {
+        services.remove(key, service);
+    }
+
+    /**
+     * @return service which runs in this JVM or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends Message, A extends Message> JRos2ServiceImpl<R, A> find(Key key) {
+        // messages type is part of the key
+        return (JRos2ServiceImpl<R, A>) services.get(key);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed capacity table of requests which are waiting for the response.
+ *
+ * <p>Client assigns sequence numbers to the requests in increasing order so they are used as slot
+ * indexes directly (modulo table capacity). This keeps the keys as primitive longs and makes all
+ * operations lock-free. When the slot is still occupied by another pending request (for example the
+ * one which never received the response) the next free slot is used. Lookups probe as many slots as
+ * the longest displacement of the entries currently in the table, which stays zero while responses
+ * arrive in time. Displaced entries are rare so they are tracked under the lock, while lookups and
+ * entries in their own slots stay lock-free.
+ *
+ * @param <E> type of entries stored in the table
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PendingRequestTable<E extends PendingRequestTable.Entry> {
+
+    /** Entry which is identified by the sequence number of the request */
+    public interface Entry {
+        long seqNum();
+    }
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Longest distance between the slot of the entry and the slot where it was put, among the
+     * entries currently in the table
+     */
+    private volatile int maxProbe;
+
+    /** Number of entries put at each distance from their slot, guarded by this */
+    private final int[] probes;
+
+    /**
+     * @param capacity maximum number of pending requests, rounded up to the nearest power of two
+     */
+    public PendingRequestTable(int capacity) {
+        Preconditions.isTrue(capacity > 0, "Capacity must be positive");
+        var length = Integer.highestOneBit(capacity);
+        if (length < capacity) length <<= 1;
+        Preconditions.isTrue(length > 0, "Capacity is too large: %s", capacity);
+        slots = new AtomicReferenceArray<>(length);
+        probes = new int[length];
+        mask = length - 1;
+    }
+
+    /**
+     * @return false when the table already has {@link #capacity()} pending requests
+     */
+    public boolean put(E entry) {
+        if (size.incrementAndGet() > slots.length()) {
+            size.decrementAndGet();
+            return false;
+        }
+        // there is at least one free slot reserved for this entry, but other threads may
+        // take and release slots concurrently so keep probing until it is found
+        var home = index(entry.seqNum());
+        for (int probe = 0; ; probe = (probe + 1) & mask) {
+            var index = (home + probe) & mask;
+            if (slots.get(index) != null) continue;
+            // publish displacement before the entry so that lookups do not miss it
+            if (probe > 0) addProbe(probe);
+            if (slots.compareAndSet(index, null, entry)) return true;
+            if (probe > 0) removeProbe(probe);
+        }
+    }
+
+    /**
+     * @return pending entry with given sequence number or null if there is no such
+     */
+    public E get(long seqNum) {
+        var index = find(seqNum);
+        return index < 0 ? null : slots.get(index);
+    }
+
+    /**
+     * Remove entry with given sequence number.
+     *
+     * @return removed entry or null if there is no such (it was never added or it was already
+     *     removed)
+     */
+    public E remove(long seqNum) {
+        var index = find(seqNum);
+        if (index < 0) return null;
+        var entry = slots.get(index);
+        if (entry == null || entry.seqNum() != seqNum) return null;
+        return clear(index, entry) ? entry : null;
+    }
+
+    /**
+     * @return true if this entry was removed by current call
+     */
+    public boolean remove(E entry) {
+        var index = find(entry.seqNum());
+        return index >= 0 && clear(index, entry);
+    }
+
+    /** Remove all entries from the table and pass each of them to the consumer */
+    public void removeAll(Consumer<E> consumer) {
+        for (int i = 0; i < slots.length(); i++) {
+            var entry = slots.getAndSet(i, null);
+            if (entry == null) continue;
+            onCleared(i, entry);
+            consumer.accept(entry);
+        }
+    }
+
+    /**
+     * @return number of pending requests in the table
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return number of slots which lookups probe besides the slot of the entry
+     */
+    public int maxProbe() {
+        return maxProbe;
+    }
+
+    /**
+     * @return slot index of the entry with given sequence number or -1 if there is no such
+     */
+    private int find(long seqNum) {
+        var home = index(seqNum);
+        var limit = maxProbe;
+        for (int probe = 0; probe <= limit; probe++) {
+            var index = (home + probe) & mask;
+            var entry = slots.get(index);
+            if (entry != null && entry.seqNum() == seqNum) return index;
+        }
+        return -1;
+    }
+
+    private boolean clear(int index, E entry) {
+        if (!slots.compareAndSet(index, entry, null)) return false;
+        onCleared(index, entry);
+        return true;
+    }
+
+    /** Entry is removed from the slot so lookups do not need to probe for it any more */
+    private void onCleared(int index, E entry) {
+        var probe = (index - index(entry.seqNum())) & mask;
+        if (probe > 0) removeProbe(probe);
+        size.decrementAndGet();
+    }
+
+    private synchronized void addProbe(int probe) {
+        probes[probe]++;
+        if (probe > maxProbe) maxProbe = probe;
+    }
+
+    private synchronized void removeProbe(int probe) {
+        probes[probe]--;
+        if (probe < maxProbe) return;
+        var max = probe;
+        while (max > 0 && probes[max] == 0) max--;
+        maxProbe = max;
+    }
+
+    private int index(long seqNum) {
+        return (int) (seqNum & mask);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2messages.Ros2MessageSerializationUtils;
+import id.jrosmessages.JRosMessageMetrics;
+import id.jrosmessages.Message;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongHistogram;
+import java.io.DataOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Serializer which takes intermediate buffers from {@link BufferPool} instead of allocating and
+ * growing new ones for every message.
+ *
+ * <p>Only intermediate buffers are pooled. Each serialized message is still copied into a new array
+ * of its exact size, because RTPS keeps the message data after it is published without notifying
+ * when it is done with it.
+ *
+ * <p>Each instance remembers size of the last message it has serialized and starts with the buffer
+ * of that size, so it is better to use separate instances for different message types.
+ *
+ * <p>Upstream {@link Ros2MessageSerializationUtils#write(Message)} does not allow to replace its
+ * output stream, so it is reimplemented here. Serialization time is recorded into the same metric,
+ * under the same meter scope and with the same attributes as upstream does.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PooledMessageSerializationUtils extends Ros2MessageSerializationUtils {
+
+    /** Scope of the upstream meter, which is named after its class from the internal package */
+    private static final String METER_SCOPE = "AbstractMessageSerializationUtils";
+
+    private static final LongHistogram MESSAGE_SERIALIZATION_TIME_METER =
+            GlobalOpenTelemetry.getMeter(METER_SCOPE)
+                    .histogramBuilder(JRosMessageMetrics.MESSAGE_SERIALIZATION_TIME_METRIC)
+                    .setDescription(
+                            JRosMessageMetrics.MESSAGE_SERIALIZATION_TIME_METRIC_DESCRIPTION)
+                    .ofLongs()
+                    .build();
+
+    private static final Attributes METRIC_ATTRS =
+            Attributes.of(AttributeKey.stringKey("RosVersion"), "ROS2");
+
+    private final BufferPool pool;
+    private volatile int sizeHint;
+
+    public PooledMessageSerializationUtils(BufferPool pool) {
+        this.pool = pool;
+        sizeHint = pool.getMinBufferSize();
+    }
+
+    @Override
+    public byte[] write(Message message) {
+        var startAt = Instant.now();
+        var out = new PooledOutputStream(pool, sizeHint);
+        try {
+            newKineticStreamWriter(new DataOutputStream(out)).write(message);
+            sizeHint = out.size();
+            return postProc(out.toByteArray());
+        } catch (Exception e) {
+            throw new RuntimeException(
+                    "Problem writing message " + message.getClass().getName(), e);
+        } finally {
+            out.close();
+            MESSAGE_SERIALIZATION_TIME_METER.record(
+                    Duration.between(startAt, Instant.now()).toMillis(), METRIC_ATTRS);
+        }
+    }
+}
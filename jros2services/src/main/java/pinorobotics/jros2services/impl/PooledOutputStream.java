@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream which writes into the buffers taken from {@link BufferPool}.
+ *
+ * <p>When buffer is full it is replaced with the larger one and returned back to the pool.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+class PooledOutputStream extends OutputStream {
+
+    private final BufferPool pool;
+    private byte[] buf;
+    private int count;
+
+    /**
+     * @param sizeHint expected number of bytes to be written
+     */
+    PooledOutputStream(BufferPool pool, int sizeHint) {
+        this.pool = pool;
+        buf = pool.acquire(sizeHint);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return copy of the bytes written
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    /** Return buffer back to the pool */
+    @Override
+    public void close() {
+        if (buf == null) return;
+        pool.release(buf);
+        buf = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= buf.length) return;
+        if (capacity < 0) throw new OutOfMemoryError("Message is too large");
+        var newBuf = pool.acquire(Math.max(capacity, buf.length << 1));
+        System.arraycopy(buf, 0, newBuf, 0, count);
+        pool.release(buf);
+        buf = newBuf;
+    }
+}
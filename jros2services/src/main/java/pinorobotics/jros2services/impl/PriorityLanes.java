@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientConstants;
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.Priority;
+import pinorobotics.jros2services.JRos2ServicesConfiguration;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
+
+/**
+ * Handler capacity shared by the services of different {@link Priority}.
+ *
+ * <p>Each priority has its own lane (queue of tasks) and its own limit on the number of tasks
+ * running at the same time: {@link JRos2ServicesConfiguration#maxConcurrentRequests()} minus the
+ * capacity reserved for all higher priorities. When any task completes, next task is taken from the
+ * highest priority lane which is still below its limit.
+ *
+ * <p>Tasks are run by the executors of the services, see {@link #newLaneExecutor(Priority,
+ * ExecutorService)}.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class PriorityLanes {
+
+    private static final XLogger LOGGER = XLogger.getLogger(PriorityLanes.class);
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(PriorityLanes.class.getSimpleName());
+    private static final LongUpDownCounter QUEUED_METER =
+            METER.upDownCounterBuilder(JRos2ServiceMetrics.LANE_REQUESTS_QUEUED_METRIC)
+                    .setDescription(JRos2ServiceMetrics.LANE_REQUESTS_QUEUED_METRIC_DESCRIPTION)
+                    .build();
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private record LaneTask(Runnable task, LaneExecutor executor) {}
+
+    private final int[] limits = new int[PRIORITIES.length];
+    private final Attributes[] metricAttributes = new Attributes[PRIORITIES.length];
+    private final List<ArrayDeque<LaneTask>> lanes = new ArrayList<>();
+    private int runningCount;
+
+    public PriorityLanes(JRos2ServicesConfiguration configuration) {
+        var maxConcurrentTasks = configuration.maxConcurrentRequests();
+        var reservedAbove = 0;
+        // priorities are declared from the highest to the lowest
+        for (var priority : PRIORITIES) {
+            limits[priority.ordinal()] = maxConcurrentTasks - reservedAbove;
+            reservedAbove += configuration.reservedRequests().getOrDefault(priority, 0);
+            metricAttributes[priority.ordinal()] =
+                    Attributes.builder()
+                            .putAll(JRos2ClientConstants.METRIC_ATTRS)
+                            .put("priority", priority.name())
+                            .build();
+            lanes.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return executor which admits tasks to the lane of the given priority and runs them with the
+     *     delegate. Delegate is shutdown together with the returned executor.
+     */
+    public ExecutorService newLaneExecutor(Priority priority, ExecutorService delegate) {
+        return new LaneExecutor(priority, delegate);
+    }
+
+    /**
+     * @return maximum number of tasks of the given priority which can run at the same time
+     */
+    public int getLimit(Priority priority) {
+        return limits[priority.ordinal()];
+    }
+
+    /**
+     * @return number of tasks waiting in the lane of the given priority
+     */
+    public synchronized int getQueuedCount(Priority priority) {
+        return lanes.get(priority.ordinal()).size();
+    }
+
+    private void admit(LaneExecutor executor, Runnable task) {
+        var ordinal = executor.priority.ordinal();
+        synchronized (this) {
+            if (executor.isShutdown) throw new RejectedExecutionException("Executor is shutdown");
+            executor.pendingCount++;
+            if (runningCount >= limits[ordinal]) {
+                lanes.get(ordinal).add(new LaneTask(task, executor));
+                QUEUED_METER.add(1, metricAttributes[ordinal]);
+                return;
+            }
+            runningCount++;
+        }
+        try {
+            execute(new LaneTask(task, executor));
+        } catch (RejectedExecutionException e) {
+            run(onCompleted(executor));
+            throw e;
+        }
+    }
+
+    private void execute(LaneTask laneTask) {
+        laneTask.executor.delegate.execute(
+                () -> {
+                    try {
+                        laneTask.task.run();
+                    } finally {
+                        run(onCompleted(laneTask.executor));
+                    }
+                });
+    }
+
+    /**
+     * Run queued task, if any. Nobody waits for it so when delegate rejects it the task is shed and
+     * the next one is run instead.
+     */
+    private void run(LaneTask laneTask) {
+        while (laneTask != null) {
+            try {
+                execute(laneTask);
+                return;
+            } catch (RejectedExecutionException e) {
+                LOGGER.warning("Service executor rejected the request, dropping it: {0}", e);
+                var task = laneTask.task;
+                laneTask = onCompleted(laneTask.executor);
+                if (task instanceof RequestTask requestTask) requestTask.onShed().run();
+            }
+        }
+    }
+
+    /**
+     * Release the slot of the completed task or pass it to the next task in the lanes
+     *
+     * @return next task to run or null if there is no such
+     */
+    private LaneTask onCompleted(LaneExecutor executor) {
+        LaneTask next = null;
+        boolean shutdownDelegate;
+        synchronized (this) {
+            executor.pendingCount--;
+            shutdownDelegate = executor.isShutdown && executor.pendingCount == 0;
+            runningCount--;
+            for (int i = 0; i < lanes.size(); i++) {
+                if (runningCount >= limits[i]) continue;
+                next = lanes.get(i).poll();
+                if (next == null) continue;
+                QUEUED_METER.add(-1, metricAttributes[i]);
+                runningCount++;
+                break;
+            }
+        }
+        if (shutdownDelegate) executor.delegate.shutdown();
+        return next;
+    }
+
+    /** View of the lanes for the tasks of a single service */
+    private class LaneExecutor extends AbstractExecutorService {
+        private final Priority priority;
+        private final ExecutorService delegate;
+        // guarded by PriorityLanes.this
+        private int pendingCount;
+        private boolean isShutdown;
+
+        LaneExecutor(Priority priority, ExecutorService delegate) {
+            this.priority = priority;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            admit(this, task);
+        }
+
+        /** Queued tasks are still executed, delegate is shutdown once all of them complete */
+        @Override
+        public void shutdown() {
+            synchronized (PriorityLanes.this) {
+                isShutdown = true;
+                if (pendingCount > 0) return;
+            }
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            var tasks = new ArrayList<Runnable>();
+            synchronized (PriorityLanes.this) {
+                isShutdown = true;
+                var lane = lanes.get(priority.ordinal());
+                lane.removeIf(
+                        t -> {
+                            if (t.executor != this) return false;
+                            tasks.add(t.task);
+                            return true;
+                        });
+                pendingCount -= tasks.size();
+                QUEUED_METER.add(-tasks.size(), metricAttributes[priority.ordinal()]);
+            }
+            tasks.addAll(delegate.shutdownNow());
+            return tasks;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            synchronized (PriorityLanes.this) {
+                return isShutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
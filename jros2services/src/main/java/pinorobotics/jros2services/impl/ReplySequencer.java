@@ -0,0 +1,242 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Reorder buffer which sends replies to each client (identified by the writer GUID) in the order of
+ * its requests, even when requests complete in a different order.
+ *
+ * <p>Every registered request should be completed, either with the reply or without it (when it
+ * fails or is shed), otherwise replies to the later requests of the same client wait for it until
+ * the buffer of the client is full. Then the reply to the slowest request is not waited for anymore
+ * and is sent as soon as it completes.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ReplySequencer {
+
+    private static final XLogger LOGGER = XLogger.getLogger(ReplySequencer.class);
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(ReplySequencer.class.getSimpleName());
+    private static final LongUpDownCounter WAITING_METER =
+            METER.upDownCounterBuilder(JRos2ServiceMetrics.REORDER_BUFFER_REPLIES_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REORDER_BUFFER_REPLIES_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongHistogram WAIT_TIME_METER =
+            METER.histogramBuilder(JRos2ServiceMetrics.REORDER_WAIT_TIME_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REORDER_WAIT_TIME_METRIC_DESCRIPTION)
+                    .ofLongs()
+                    .build();
+    private static final LongCounter SKIPPED_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REORDER_SKIPPED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REORDER_SKIPPED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+
+    private static class Entry {
+        private final ClientId client;
+        private boolean isCompleted;
+        private boolean isSkipped;
+        private RtpsTalkDataMessage reply;
+        private long completedAt;
+
+        Entry(ClientId client) {
+            this.client = client;
+        }
+    }
+
+    /** Requests of the client in the order of their arrival */
+    private static class ClientQueue {
+        private final ClientId client;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+        /** Replies which are next to be sent, in order */
+        private final ArrayDeque<RtpsTalkDataMessage> ready = new ArrayDeque<>();
+
+        private int waitingCount;
+
+        /** Some thread sends replies of the client, others leave theirs to it */
+        private boolean isPublishing;
+
+        ClientQueue(ClientId client) {
+            this.client = client;
+        }
+    }
+
+    // guarded by this
+    private final Map<ByteBuffer, Entry> entries = new HashMap<>();
+    private final Map<ClientId, ClientQueue> clients = new HashMap<>();
+    private final int maxWaitingReplies;
+    private final Consumer<RtpsTalkDataMessage> publisher;
+    private final Attributes metricAttributes;
+
+    /**
+     * @param maxWaitingReplies maximum number of completed replies which wait for the earlier
+     *     requests of each client
+     * @param publisher publisher of the replies, which is called outside of the lock by one thread
+     *     at a time for each client, in order of its requests
+     */
+    public ReplySequencer(
+            int maxWaitingReplies,
+            Consumer<RtpsTalkDataMessage> publisher,
+            Attributes metricAttributes) {
+        Preconditions.isTrue(maxWaitingReplies >= 0, "maxWaitingReplies must not be negative");
+        this.maxWaitingReplies = maxWaitingReplies;
+        this.publisher = publisher;
+        this.metricAttributes = metricAttributes;
+    }
+
+    /**
+     * Register request in the order of arrival
+     *
+     * @return false if request with the same identity is registered already
+     */
+    public synchronized boolean register(byte[] identity) {
+        var key = ByteBuffer.wrap(identity);
+        if (entries.containsKey(key)) return false;
+        var client = ClientId.fromIdentity(identity);
+        var entry = new Entry(client);
+        entries.put(key, entry);
+        clients.computeIfAbsent(client, ClientQueue::new).entries.add(entry);
+        return true;
+    }
+
+    /**
+     * Send the reply once replies to all earlier requests of the client are sent. Replies are sent
+     * outside of the lock, by the thread which completed the first of them.
+     */
+    public void complete(byte[] identity, RtpsTalkDataMessage reply) {
+        ClientQueue queue;
+        synchronized (this) {
+            var entry = entries.remove(ByteBuffer.wrap(identity));
+            if (entry == null || entry.isSkipped) {
+                queue = null;
+            } else {
+                entry.isCompleted = true;
+                entry.reply = reply;
+                entry.completedAt = System.nanoTime();
+                queue = clients.get(entry.client);
+                queue.waitingCount++;
+                WAITING_METER.add(1, metricAttributes);
+                if (drain(queue) == null) return;
+            }
+        }
+        // nothing waits for the reply or this thread publishes the ready ones
+        if (queue == null) publish(reply);
+        else publishReady(queue);
+    }
+
+    /** Request was completed without the reply, so replies to the later requests do not wait */
+    public void cancel(byte[] identity) {
+        ClientQueue queue;
+        synchronized (this) {
+            var entry = entries.remove(ByteBuffer.wrap(identity));
+            if (entry == null || entry.isSkipped) return;
+            entry.isCompleted = true;
+            queue = drain(clients.get(entry.client));
+        }
+        if (queue != null) publishReady(queue);
+    }
+
+    /**
+     * @return number of completed replies which wait for the earlier requests
+     */
+    public synchronized int getWaitingCount() {
+        return clients.values().stream().mapToInt(queue -> queue.waitingCount).sum();
+    }
+
+    /**
+     * Move replies which do not wait anymore to the ready ones
+     *
+     * @return queue if current thread should publish its ready replies
+     */
+    private ClientQueue drain(ClientQueue queue) {
+        while (!queue.entries.isEmpty()) {
+            var head = queue.entries.peek();
+            if (!head.isCompleted) {
+                if (queue.waitingCount <= maxWaitingReplies) break;
+                // head-of-line request is too slow, stop waiting for it
+                head.isSkipped = true;
+                queue.entries.poll();
+                SKIPPED_METER.add(1, metricAttributes);
+                continue;
+            }
+            queue.entries.poll();
+            if (head.reply == null) continue;
+            queue.waitingCount--;
+            WAITING_METER.add(-1, metricAttributes);
+            WAIT_TIME_METER.record(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.completedAt),
+                    metricAttributes);
+            queue.ready.add(head.reply);
+            head.reply = null;
+        }
+        if (queue.isPublishing || queue.ready.isEmpty()) {
+            removeIfEmpty(queue);
+            return null;
+        }
+        queue.isPublishing = true;
+        return queue;
+    }
+
+    /** Publish ready replies, including the ones which other threads add meanwhile */
+    private void publishReady(ClientQueue queue) {
+        while (true) {
+            RtpsTalkDataMessage reply;
+            synchronized (this) {
+                reply = queue.ready.poll();
+                if (reply == null) {
+                    queue.isPublishing = false;
+                    removeIfEmpty(queue);
+                    return;
+                }
+            }
+            publish(reply);
+        }
+    }
+
+    private void publish(RtpsTalkDataMessage reply) {
+        try {
+            publisher.accept(reply);
+        } catch (RuntimeException e) {
+            LOGGER.severe("Could not publish the reply: {0}", e.getMessage());
+            LOGGER.fine(e);
+        }
+    }
+
+    private void removeIfEmpty(ClientQueue queue) {
+        if (queue.entries.isEmpty() && queue.ready.isEmpty() && !queue.isPublishing)
+            clients.remove(queue.client, queue);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import pinorobotics.jros2services.impl.HashedWheelTimer.Timeout;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
+
+/**
+ * Collects items into batches and passes them to the consumer when batch reaches maximum size or
+ * when its first item waited for the maximum delay, whichever comes first.
+ *
+ * <p>Thread safe. Consumer is called outside of the lock, either from the thread which added the
+ * last item or from the timer thread, so it is expected to hand the batch over to another executor.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class RequestBatcher<T> {
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(RequestBatcher.class.getSimpleName());
+    private static final LongHistogram BATCH_SIZE_METER =
+            METER.histogramBuilder(JRos2ServiceMetrics.BATCH_SIZE_METRIC)
+                    .setDescription(JRos2ServiceMetrics.BATCH_SIZE_METRIC_DESCRIPTION)
+                    .ofLongs()
+                    .build();
+    private static final LongHistogram BATCH_WAIT_TIME_METER =
+            METER.histogramBuilder(JRos2ServiceMetrics.BATCH_WAIT_TIME_METRIC)
+                    .setDescription(JRos2ServiceMetrics.BATCH_WAIT_TIME_METRIC_DESCRIPTION)
+                    .ofLongs()
+                    .build();
+
+    private final HashedWheelTimer timer;
+    private final int maxBatchSize;
+    private final Duration maxBatchDelay;
+    private final Consumer<List<T>> consumer;
+    private final Attributes metricAttributes;
+    private List<T> batch;
+    private long batchStartedAt;
+    private Optional<Timeout> batchTimeout = Optional.empty();
+
+    /**
+     * @param timer timer which completes the batches after delay
+     * @param consumer receiver of the complete batches
+     */
+    public RequestBatcher(
+            HashedWheelTimer timer,
+            int maxBatchSize,
+            Duration maxBatchDelay,
+            Consumer<List<T>> consumer,
+            Attributes metricAttributes) {
+        this.timer = timer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelay = maxBatchDelay;
+        this.consumer = consumer;
+        this.metricAttributes = metricAttributes;
+        batch = new ArrayList<>(maxBatchSize);
+    }
+
+    public void add(T item) {
+        List<T> complete = null;
+        synchronized (this) {
+            batch.add(item);
+            if (batch.size() == 1) {
+                batchStartedAt = System.nanoTime();
+                if (maxBatchSize > 1) {
+                    var currentBatch = batch;
+                    batchTimeout =
+                            Optional.of(
+                                    timer.newTimeout(() -> onDelay(currentBatch), maxBatchDelay));
+                }
+            }
+            if (batch.size() == maxBatchSize) {
+                batchTimeout.ifPresent(Timeout::cancel);
+                complete = takeBatch();
+            }
+        }
+        if (complete != null) consumer.accept(complete);
+    }
+
+    /** Pass incomplete batch, if any, to the consumer right away */
+    public void flush() {
+        List<T> complete;
+        synchronized (this) {
+            if (batch.isEmpty()) return;
+            batchTimeout.ifPresent(Timeout::cancel);
+            complete = takeBatch();
+        }
+        consumer.accept(complete);
+    }
+
+    private void onDelay(List<T> expectedBatch) {
+        List<T> complete;
+        synchronized (this) {
+            // batch was already completed by the size
+            if (batch != expectedBatch || batch.isEmpty()) return;
+            complete = takeBatch();
+        }
+        consumer.accept(complete);
+    }
+
+    private List<T> takeBatch() {
+        var complete = batch;
+        batch = new ArrayList<>(maxBatchSize);
+        batchTimeout = Optional.empty();
+        BATCH_SIZE_METER.record(complete.size(), metricAttributes);
+        BATCH_WAIT_TIME_METER.record(
+                Duration.ofNanos(System.nanoTime() - batchStartedAt).toMillis(), metricAttributes);
+        return complete;
+    }
+}
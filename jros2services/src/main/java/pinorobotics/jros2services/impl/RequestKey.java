@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.Arrays;
+
+/**
+ * Identifies requests by their serialized form so that identical requests can be matched without
+ * comparing the messages themselves.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public final class RequestKey {
+
+    private final byte[] data;
+    private final int hashCode;
+
+    /**
+     * @param data serialized request, it is not copied and should not be modified afterwards
+     */
+    public RequestKey(byte[] data) {
+        this.data = data;
+        hashCode = Arrays.hashCode(data);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof RequestKey other)) return false;
+        return hashCode == other.hashCode && Arrays.equals(data, other.data);
+    }
+}
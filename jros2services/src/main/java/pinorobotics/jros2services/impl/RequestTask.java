@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+/**
+ * Task which executes service handler for the request of the given client.
+ *
+ * <p>Executors created from {@link pinorobotics.jros2services.JRos2ServiceConfiguration} use the
+ * client to schedule the tasks and notify the service about the tasks which they shed, other
+ * executors run them as any other task.
+ *
+ * @param onShed called instead of the task when executor sheds it
+ * @author lambdaprime intid@protonmail.com
+ */
+public record RequestTask(ClientId clientId, Runnable task, Runnable onShed) implements Runnable {
+
+    private static final Runnable NOTHING = () -> {};
+
+    public RequestTask(ClientId clientId, Runnable task) {
+        this(clientId, task, NOTHING);
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+}
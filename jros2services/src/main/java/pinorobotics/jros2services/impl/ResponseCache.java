@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.Preconditions;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded cache of serialized responses with LRU eviction and fixed time to live.
+ *
+ * <p>Responses are kept serialized because messages are mutable and cannot be shared between the
+ * callers.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponseCache {
+
+    private record Entry(byte[] response, long expiresAt) {}
+
+    private final LinkedHashMap<RequestKey, Entry> entries;
+    private final long ttlNanos;
+
+    public ResponseCache(int maxSize, Duration ttl) {
+        Preconditions.isTrue(maxSize > 0, "Cache size must be positive");
+        Preconditions.isTrue(!ttl.isNegative() && !ttl.isZero(), "Cache TTL must be positive");
+        ttlNanos = ttl.toNanos();
+        entries =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<RequestKey, Entry> eldest) {
+                        return size() > maxSize;
+                    }
+                };
+    }
+
+    /**
+     * @return serialized response or null if there is no such or it has expired
+     */
+    public synchronized byte[] get(RequestKey request) {
+        var entry = entries.get(request);
+        if (entry == null) return null;
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(request);
+            return null;
+        }
+        return entry.response;
+    }
+
+    public synchronized void put(RequestKey request, byte[] response) {
+        entries.put(request, new Entry(response, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientImpl;
+import id.jros2client.impl.rmw.RmwConstants;
+import id.jrosclient.exceptions.JRosClientException;
+import id.xfunction.concurrent.flow.SimpleSubscriber;
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import pinorobotics.jros2services.impl.ddsrpc.DdsRpcUtils;
+import pinorobotics.jros2services.metrics.JRos2ServiceClientMetrics;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Single response subscription shared by all clients of the same ROS2 service which use the same
+ * {@link JRos2ClientImpl}.
+ *
+ * <p>RTPS allows only one local writer per topic so the requests publisher is shared between the
+ * clients as well.
+ *
+ * <p>All clients send requests with the GUID of this subscription (ROS2 services use it to find the
+ * reader which expects the response) so the sequence numbers should not overlap between them. To
+ * achieve this, each client is assigned an id which occupies the upper bits of all its sequence
+ * numbers. Responses are routed to the clients by that id without any lookups.
+ *
+ * <p>Not thread safe. Registration of the clients is synchronized by {@link
+ * ResponseDemultiplexerRegistry}.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponseDemultiplexer {
+
+    private static final XLogger LOGGER = XLogger.getLogger(ResponseDemultiplexer.class);
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(ResponseDemultiplexer.class.getSimpleName());
+    private static final LongCounter IGNORED_RESPONSES_METER =
+            METER.counterBuilder(JRos2ServiceClientMetrics.RESPONSES_IGNORED_COUNT_METRIC)
+                    .setDescription(
+                            JRos2ServiceClientMetrics.RESPONSES_IGNORED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+
+    /** Number of lower bits of sequence numbers available to each client */
+    public static final int LOCAL_SEQ_NUM_BITS = 40;
+
+    private static final long LOCAL_SEQ_NUM_MASK = (1L << LOCAL_SEQ_NUM_BITS) - 1;
+    private static final int CLIENT_ID_MASK = (1 << 16) - 1;
+    private static final int MAX_CLIENTS = 1024;
+
+    /** Receiver of the responses */
+    public interface ResponseListener {
+        void onResponse(long seqNum, RtpsTalkDataMessage message);
+
+        void onError(Throwable throwable);
+    }
+
+    private record Registration(int clientId, ResponseListener listener) {}
+
+    private final DdsRpcUtils utils = new DdsRpcUtils();
+    private final AtomicReferenceArray<Registration> clients =
+            new AtomicReferenceArray<>(MAX_CLIENTS);
+    private final String topicName;
+    private final String messageType;
+    private final String requestTopicName;
+    private final String requestMessageType;
+    private final Attributes metricAttributes;
+    private final DemandWindow demandWindow;
+    private SimpleSubscriber<RtpsTalkDataMessage> responsesSubscriber;
+    private SubmissionPublisher<RtpsTalkDataMessage> requestsPublisher;
+    private volatile byte[] guid;
+    private int nextClientId;
+    private int clientsCount;
+
+    public ResponseDemultiplexer(
+            String topicName,
+            String messageType,
+            String requestTopicName,
+            String requestMessageType,
+            int prefetch,
+            Attributes metricAttributes) {
+        this.topicName = topicName;
+        this.messageType = messageType;
+        this.requestTopicName = requestTopicName;
+        this.requestMessageType = requestMessageType;
+        this.metricAttributes = metricAttributes;
+        demandWindow = new DemandWindow(prefetch);
+    }
+
+    /**
+     * @return sequence number which belongs to the client with given id
+     */
+    public static long toSeqNum(int clientId, long localSeqNum) {
+        return ((long) clientId << LOCAL_SEQ_NUM_BITS) | (localSeqNum & LOCAL_SEQ_NUM_MASK);
+    }
+
+    /** GUID which clients should use in the identity of their requests */
+    public byte[] getGuid() {
+        return guid;
+    }
+
+    /** Publish request of any of the registered clients */
+    public void submit(RtpsTalkDataMessage request) {
+        requestsPublisher.submit(request);
+    }
+
+    /**
+     * @return id of the registered client
+     */
+    int register(ResponseListener listener) {
+        if (clientsCount == MAX_CLIENTS)
+            throw new JRosClientException(
+                    "Number of clients for %s exceeds maximum %s", topicName, MAX_CLIENTS);
+        // ids are not reused right away so that late responses for closed clients are not
+        // routed to the new ones
+        var clientId = nextClientId;
+        while (clients.get(clientId % MAX_CLIENTS) != null)
+            clientId = (clientId + 1) & CLIENT_ID_MASK;
+        nextClientId = (clientId + 1) & CLIENT_ID_MASK;
+        clients.set(clientId % MAX_CLIENTS, new Registration(clientId, listener));
+        clientsCount++;
+        LOGGER.fine("Registered client {0} for {1}", clientId, topicName);
+        return clientId;
+    }
+
+    /**
+     * @return true if there are no more clients left
+     */
+    boolean unregister(int clientId) {
+        var registration = clients.get(clientId % MAX_CLIENTS);
+        if (registration == null || registration.clientId != clientId) return clientsCount == 0;
+        clients.set(clientId % MAX_CLIENTS, null);
+        clientsCount--;
+        LOGGER.fine("Unregistered client {0} for {1}", clientId, topicName);
+        return clientsCount == 0;
+    }
+
+    void start(JRos2ClientImpl jros2Client) {
+        var rtpsTalkClient = jros2Client.getRtpsTalkClient();
+        responsesSubscriber =
+                new SimpleSubscriber<RtpsTalkDataMessage>() {
+                    @Override
+                    public void onNext(RtpsTalkDataMessage message) {
+                        try {
+                            route(message);
+                        } finally {
+                            // request next messages
+                            var count = demandWindow.onConsumed();
+                            if (count > 0) getSubscription().get().request(count);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        super.onError(throwable);
+                        for (int i = 0; i < clients.length(); i++) {
+                            var registration = clients.get(i);
+                            if (registration != null) registration.listener.onError(throwable);
+                        }
+                    }
+                }.withInitialRequest(demandWindow.getPrefetch());
+        LOGGER.fine("Registering subscriber for {0} with type {1}", topicName, messageType);
+        var entityId =
+                rtpsTalkClient.subscribe(
+                        topicName,
+                        messageType,
+                        DdsRpcUtils.DEFAULT_SUBSCRIBER_QOS,
+                        responsesSubscriber);
+        guid = newGuid(rtpsTalkClient.getConfiguration().guidPrefix(), entityId);
+        requestsPublisher = new SubmissionPublisher<RtpsTalkDataMessage>();
+        LOGGER.fine(
+                "Registering publisher for {0} with type {1}",
+                requestTopicName, requestMessageType);
+        rtpsTalkClient.publish(
+                requestTopicName,
+                requestMessageType,
+                RmwConstants.DEFAULT_PUBLISHER_QOS,
+                requestsPublisher);
+    }
+
+    void close() {
+        LOGGER.fine("Closing publisher and subscriber for {0}", topicName);
+        requestsPublisher.close();
+        responsesSubscriber.getSubscription().ifPresent(Subscription::cancel);
+    }
+
+    private void route(RtpsTalkDataMessage message) {
+        // responses for the clients which subscribed from other JRos2Client instances or other
+        // processes are dropped before doing any work on them
+        if (utils.isForeign(message, guid)) {
+            IGNORED_RESPONSES_METER.add(1, metricAttributes);
+            return;
+        }
+        var seqNum = utils.findRequestId(message).orElse(null);
+        if (seqNum == null) {
+            LOGGER.warning("Received response without request id, ignoring it");
+            return;
+        }
+        var clientId = (int) (seqNum >>> LOCAL_SEQ_NUM_BITS) & CLIENT_ID_MASK;
+        var registration = clients.get(clientId % MAX_CLIENTS);
+        if (registration == null || registration.clientId != clientId) {
+            LOGGER.warning(
+                    "Received response {0} for the client which does not exist anymore, ignoring"
+                            + " it",
+                    seqNum);
+            return;
+        }
+        registration.listener.onResponse(seqNum, message);
+    }
+
+    private byte[] newGuid(byte[] guidPrefix, int entityId) {
+        var guid = ByteBuffer.allocate(16);
+        guid.put(guidPrefix);
+        guid.putInt(entityId);
+        return guid.array();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.jros2client.impl.JRos2ClientImpl;
+import io.opentelemetry.api.common.Attributes;
+import java.util.HashMap;
+import java.util.Map;
+import pinorobotics.jros2services.impl.ResponseDemultiplexer.ResponseListener;
+
+/**
+ * Keeps one {@link ResponseDemultiplexer} per ({@link JRos2ClientImpl}, response topic) and closes
+ * it together with the last client which uses it.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponseDemultiplexerRegistry {
+
+    record Key(JRos2ClientImpl jros2Client, String topicName, String messageType) {}
+
+    /** Client registered with the demultiplexer */
+    public record Registration(ResponseDemultiplexer demultiplexer, int clientId, Key key) {
+        public long toSeqNum(long localSeqNum) {
+            return ResponseDemultiplexer.toSeqNum(clientId, localSeqNum);
+        }
+    }
+
+    private final Map<Key, ResponseDemultiplexer> demultiplexers = new HashMap<>();
+
+    /**
+     * Register client and subscribe to the responses topic (and publish to the requests topic) if
+     * it is first client for it
+     */
+    public synchronized Registration register(
+            JRos2ClientImpl jros2Client,
+            String topicName,
+            String messageType,
+            String requestTopicName,
+            String requestMessageType,
+            int prefetch,
+            Attributes metricAttributes,
+            ResponseListener listener) {
+        var key = new Key(jros2Client, topicName, messageType);
+        var demultiplexer = demultiplexers.get(key);
+        if (demultiplexer == null) {
+            demultiplexer =
+                    new ResponseDemultiplexer(
+                            topicName,
+                            messageType,
+                            requestTopicName,
+                            requestMessageType,
+                            prefetch,
+                            metricAttributes);
+            demultiplexer.start(jros2Client);
+            demultiplexers.put(key, demultiplexer);
+        }
+        return new Registration(demultiplexer, demultiplexer.register(listener), key);
+    }
+
+    /** Unregister client and close the subscription and publisher if it was the last client */
+    public synchronized void unregister(Registration registration) {
+        var demultiplexer = registration.demultiplexer();
+        if (!demultiplexer.unregister(registration.clientId())) return;
+        demultiplexer.close();
+        demultiplexers.remove(registration.key(), demultiplexer);
+    }
+}
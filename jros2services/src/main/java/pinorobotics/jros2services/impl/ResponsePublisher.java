@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
+import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
+
+/**
+ * Publisher of the service responses which never blocks handler threads for longer than the offer
+ * timeout. Responses which do not fit into the buffer within the timeout are dropped.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponsePublisher extends SubmissionPublisher<RtpsTalkDataMessage> {
+
+    private static final XLogger LOGGER = XLogger.getLogger(ResponsePublisher.class);
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(ResponsePublisher.class.getSimpleName());
+    private static final LongCounter DROPPED_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.RESPONSES_DROPPED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.RESPONSES_DROPPED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+
+    private final long offerTimeoutNanos;
+    private final Attributes metricAttributes;
+
+    /**
+     * @param executor executor which delivers responses to the RTPS writer
+     * @param bufferSize maximum number of responses waiting to be delivered
+     */
+    public ResponsePublisher(
+            Executor executor, int bufferSize, Duration offerTimeout, Attributes metricAttributes) {
+        super(executor, bufferSize);
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.metricAttributes = metricAttributes;
+    }
+
+    /**
+     * @return false if response was dropped
+     */
+    public boolean publish(RtpsTalkDataMessage response) {
+        var lag =
+                offerTimeoutNanos == 0
+                        ? offer(response, this::onDrop)
+                        : offer(response, offerTimeoutNanos, TimeUnit.NANOSECONDS, this::onDrop);
+        return lag >= 0;
+    }
+
+    private boolean onDrop(
+            Subscriber<? super RtpsTalkDataMessage> subscriber, RtpsTalkDataMessage response) {
+        DROPPED_METER.add(1, metricAttributes);
+        LOGGER.warning("Responses buffer is full, dropping the response");
+        // no retries
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed number of daemon threads which deliver the responses of many services to their RTPS
+ * writers.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ResponsePublisherPool implements AutoCloseable {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+
+    /**
+     * @param threads number of threads in the pool, they are started on demand
+     */
+    public ResponsePublisherPool(int threads) {
+        var poolName = "jros2services-publisher-" + POOL_COUNT.incrementAndGet();
+        var threadCount = new AtomicInteger();
+        executor =
+                Executors.newFixedThreadPool(
+                        threads,
+                        runnable -> {
+                            var thread =
+                                    new Thread(
+                                            runnable,
+                                            poolName + "-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * @return publisher of the service responses which uses threads of this pool
+     */
+    public ResponsePublisher newPublisher(
+            int bufferSize, Duration offerTimeout, Attributes metricAttributes) {
+        return new ResponsePublisher(executor, bufferSize, offerTimeout, metricAttributes);
+    }
+
+    /**
+     * Release the threads of the pool once they deliver the responses already accepted by the
+     * publishers. Publishers created by it should be closed before that.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor which assigns tasks to the shards by their keys. Each shard is expected to be single
+ * threaded, so that tasks with the same key are executed in the order they were submitted.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class ShardedExecutor extends AbstractExecutorService {
+
+    private final List<ExecutorService> shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    /**
+     * @param shards executors of the shards, they are shutdown together with this executor
+     */
+    public ShardedExecutor(List<ExecutorService> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /** Execute task in the shard of the given key */
+    public void execute(Object key, Runnable task) {
+        shards.get(shardOf(key)).execute(task);
+    }
+
+    /**
+     * @return index of the shard which executes tasks of the given key
+     */
+    public int shardOf(Object key) {
+        var hash = key.hashCode();
+        // spread higher bits, since keys often differ only in them
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    /** Tasks without the key are spread across the shards in round robin */
+    @Override
+    public void execute(Runnable task) {
+        shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size())).execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        shards.forEach(ExecutorService::shutdown);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        var tasks = new ArrayList<Runnable>();
+        shards.forEach(shard -> tasks.addAll(shard.shutdownNow()));
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shards.stream().allMatch(ExecutorService::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shards.stream().allMatch(ExecutorService::isTerminated);
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (var shard : shards) {
+            if (!shard.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+                return false;
+        }
+        return true;
+    }
+}
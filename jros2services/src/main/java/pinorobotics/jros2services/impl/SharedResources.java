@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Resources which {@link pinorobotics.jros2services.JRos2ServicesFactory} and {@link
+ * pinorobotics.jros2services.JRos2ServiceHost} share between the services created by them. Services
+ * create their own resources for the ones which are missing.
+ *
+ * @param lanes handler capacity shared between the services, if it is limited
+ * @param publishers threads which deliver responses of the services
+ * @param dispatcher threads which execute handlers of the services
+ * @param localServices services which clients can call without RTPS
+ * @author lambdaprime intid@protonmail.com
+ */
+public record SharedResources(
+        Optional<PriorityLanes> lanes,
+        Optional<ResponsePublisherPool> publishers,
+        Optional<ExecutorService> dispatcher,
+        Optional<LocalServiceRegistry> localServices) {
+
+    /** No resources are shared */
+    public static final SharedResources NONE =
+            new SharedResources(
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+    /**
+     * @return same resources which share given dispatcher threads as well
+     */
+    public SharedResources withDispatcher(ExecutorService dispatcher) {
+        return new SharedResources(lanes, publishers, Optional.of(dispatcher), localServices);
+    }
+}
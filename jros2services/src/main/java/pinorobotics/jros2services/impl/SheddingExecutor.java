@@ -0,0 +1,290 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.logging.XLogger;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import pinorobotics.jros2services.JRos2ServiceConfiguration.SheddingPolicy;
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jros2services.metrics.JRos2ServiceMetrics;
+
+/**
+ * Executor which limits number of tasks running at the same time and number of tasks waiting for
+ * it. Tasks which do not fit are shed (never executed) according to {@link
+ * JRos2ServiceConfiguration#sheddingPolicy()}.
+ *
+ * <p>With {@link JRos2ServiceConfiguration#fairScheduling()} waiting tasks are scheduled by {@link
+ * FairQueue} between the clients of {@link RequestTask}s.
+ *
+ * <p>Tasks are run by the delegate executor.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class SheddingExecutor extends AbstractExecutorService {
+
+    private static final XLogger LOGGER = XLogger.getLogger(SheddingExecutor.class);
+
+    private static final Meter METER =
+            GlobalOpenTelemetry.getMeter(SheddingExecutor.class.getSimpleName());
+    private static final LongUpDownCounter QUEUED_METER =
+            METER.upDownCounterBuilder(JRos2ServiceMetrics.REQUESTS_QUEUED_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REQUESTS_QUEUED_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter REJECTED_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REQUESTS_REJECTED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REQUESTS_REJECTED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter DROPPED_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REQUESTS_DROPPED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REQUESTS_DROPPED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+    private static final LongCounter EXPIRED_METER =
+            METER.counterBuilder(JRos2ServiceMetrics.REQUESTS_EXPIRED_COUNT_METRIC)
+                    .setDescription(JRos2ServiceMetrics.REQUESTS_EXPIRED_COUNT_METRIC_DESCRIPTION)
+                    .build();
+
+    /** Client of all tasks when fair scheduling is disabled */
+    private static final Object ANY_CLIENT = new Object();
+
+    private record QueuedTask(Runnable task, Object client, long enqueuedAt) {}
+
+    private final FairQueue<QueuedTask> queue = new FairQueue<>();
+    private final ExecutorService delegate;
+    private final int maxConcurrentTasks;
+    private final int maxQueuedTasks;
+    private final SheddingPolicy sheddingPolicy;
+    private final long maxQueueTimeNanos;
+    private final boolean fairScheduling;
+    private final Attributes metricAttributes;
+    private final List<ObservableLongGauge> clientGauges;
+    private int runningCount;
+    private boolean isShutdown;
+
+    /**
+     * @param delegate executor which runs the tasks
+     */
+    public SheddingExecutor(
+            ExecutorService delegate,
+            JRos2ServiceConfiguration configuration,
+            Attributes metricAttributes) {
+        this(delegate, configuration, configuration.maxConcurrentRequests(), metricAttributes);
+    }
+
+    /**
+     * @param delegate executor which runs the tasks
+     * @param maxConcurrentTasks overrides {@link JRos2ServiceConfiguration#maxConcurrentRequests()}
+     */
+    public SheddingExecutor(
+            ExecutorService delegate,
+            JRos2ServiceConfiguration configuration,
+            int maxConcurrentTasks,
+            Attributes metricAttributes) {
+        this.delegate = delegate;
+        this.metricAttributes = metricAttributes;
+        this.maxConcurrentTasks = maxConcurrentTasks;
+        maxQueuedTasks = configuration.maxQueuedRequests();
+        sheddingPolicy = configuration.sheddingPolicy();
+        maxQueueTimeNanos =
+                configuration.maxQueueTime().map(Duration::toNanos).orElse(Long.MAX_VALUE);
+        fairScheduling = configuration.fairScheduling();
+        // clients are not used as metric attributes since their number is not bounded
+        clientGauges =
+                fairScheduling
+                        ? List.of(
+                                newGauge(
+                                        JRos2ServiceMetrics.CLIENTS_QUEUED_METRIC,
+                                        JRos2ServiceMetrics.CLIENTS_QUEUED_METRIC_DESCRIPTION,
+                                        queue::clientCount),
+                                newGauge(
+                                        JRos2ServiceMetrics.CLIENT_REQUESTS_QUEUED_MAX_METRIC,
+                                        JRos2ServiceMetrics
+                                                .CLIENT_REQUESTS_QUEUED_MAX_METRIC_DESCRIPTION,
+                                        queue::longestClientSize))
+                        : List.of();
+    }
+
+    private ObservableLongGauge newGauge(String name, String description, IntSupplier value) {
+        return METER.gaugeBuilder(name)
+                .setDescription(description)
+                .ofLongs()
+                .buildWithCallback(
+                        measurement -> {
+                            synchronized (this) {
+                                measurement.record(value.getAsInt(), metricAttributes);
+                            }
+                        });
+    }
+
+    /** Run the task, put it into the queue or shed it */
+    @Override
+    public void execute(Runnable task) {
+        var client =
+                fairScheduling && task instanceof RequestTask requestTask
+                        ? requestTask.clientId()
+                        : ANY_CLIENT;
+        QueuedTask dropped = null;
+        var isRejected = false;
+        synchronized (this) {
+            if (isShutdown) throw new RejectedExecutionException("Executor is shutdown");
+            if (runningCount < maxConcurrentTasks) {
+                runningCount++;
+            } else if (queue.size() < maxQueuedTasks) {
+                queue.add(client, new QueuedTask(task, client, System.nanoTime()));
+                QUEUED_METER.add(1, metricAttributes);
+                return;
+            } else if (sheddingPolicy == SheddingPolicy.DROP_OLDEST && !queue.isEmpty()) {
+                dropped = queue.pollLongest();
+                queue.add(client, new QueuedTask(task, client, System.nanoTime()));
+            } else {
+                isRejected = true;
+            }
+        }
+        if (isRejected) {
+            REJECTED_METER.add(1, metricAttributes);
+            LOGGER.fine("Handler queue is full, rejecting new request");
+            shed(task);
+        } else if (dropped != null) {
+            DROPPED_METER.add(1, metricAttributes);
+            LOGGER.fine("Handler queue is full, dropping oldest request");
+            shed(dropped.task());
+        } else {
+            run(task, client);
+        }
+    }
+
+    /**
+     * @return number of tasks waiting in the queue
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void run(Runnable task, Object client) {
+        // task rejected by the delegate frees its slot for the next task in the queue
+        while (!tryRun(task, client)) {
+            var next = onCompleted(client, 0);
+            if (next == null) return;
+            task = next.task();
+            client = next.client();
+        }
+    }
+
+    /**
+     * @return false if delegate rejected the task, in that case it is shed
+     */
+    private boolean tryRun(Runnable task, Object client) {
+        try {
+            delegate.execute(
+                    () -> {
+                        var startAt = System.nanoTime();
+                        try {
+                            task.run();
+                        } finally {
+                            var next = onCompleted(client, System.nanoTime() - startAt);
+                            if (next != null) run(next.task(), next.client());
+                        }
+                    });
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warning("Service executor rejected the request, dropping it: {0}", e);
+            shed(task);
+            return false;
+        }
+    }
+
+    /**
+     * Release the slot of the completed task or pass it to the next task in the queue
+     *
+     * @return next task to run or null if there is no such
+     */
+    private QueuedTask onCompleted(Object client, long executionTime) {
+        QueuedTask next;
+        List<Runnable> expired = null;
+        synchronized (this) {
+            if (fairScheduling) queue.charge(client, executionTime);
+            while ((next = queue.poll()) != null) {
+                QUEUED_METER.add(-1, metricAttributes);
+                if (System.nanoTime() - next.enqueuedAt() <= maxQueueTimeNanos) break;
+                EXPIRED_METER.add(1, metricAttributes);
+                LOGGER.fine("Request waited in the handler queue for too long, dropping it");
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(next.task());
+            }
+            if (next == null) runningCount--;
+            if (next == null && isShutdown && runningCount == 0) delegate.shutdown();
+        }
+        if (expired != null) expired.forEach(this::shed);
+        return next;
+    }
+
+    private void shed(Runnable task) {
+        if (task instanceof RequestTask requestTask) requestTask.onShed().run();
+    }
+
+    /** Queued tasks are still executed, delegate is shutdown once all of them complete */
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (!isShutdown) clientGauges.forEach(ObservableLongGauge::close);
+            isShutdown = true;
+            if (runningCount > 0) return;
+        }
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        var tasks = new ArrayList<Runnable>();
+        synchronized (this) {
+            if (!isShutdown) clientGauges.forEach(ObservableLongGauge::close);
+            isShutdown = true;
+            QUEUED_METER.add(-queue.size(), metricAttributes);
+            queue.clear(t -> tasks.add(t.task()));
+        }
+        tasks.addAll(delegate.shutdownNow());
+        return tasks;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
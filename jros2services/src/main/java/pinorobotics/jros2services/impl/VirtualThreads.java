@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl;
+
+import id.xfunction.logging.XLogger;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads.
+ *
+ * <p>Library is built for Java 17 so virtual threads API (Java 21) is looked up at runtime. On
+ * older versions, or when it is still a preview feature which is not enabled, virtual threads are
+ * reported as not supported.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class VirtualThreads {
+
+    private static final XLogger LOGGER = XLogger.getLogger(VirtualThreads.class);
+
+    /** Thread.ofVirtual() */
+    private static final MethodHandle OF_VIRTUAL;
+
+    /** Thread.Builder.OfVirtual.name(String prefix, long start) */
+    private static final MethodHandle NAME;
+
+    /** Thread.Builder.factory() */
+    private static final MethodHandle FACTORY;
+
+    /** Executors.newThreadPerTaskExecutor(ThreadFactory) */
+    private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        MethodHandle ofVirtual = null, name = null, factory = null, newExecutor = null;
+        try {
+            var lookup = MethodHandles.publicLookup();
+            var builderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual =
+                    lookup.findStatic(
+                            Thread.class, "ofVirtual", MethodType.methodType(builderClass));
+            name =
+                    lookup.findVirtual(
+                            builderClass,
+                            "name",
+                            MethodType.methodType(builderClass, String.class, long.class));
+            factory =
+                    lookup.findVirtual(
+                            builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            newExecutor =
+                    lookup.findStatic(
+                            Executors.class,
+                            "newThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            // preview versions of the API throw when preview features are disabled
+            ofVirtual.invoke();
+        } catch (Throwable e) {
+            LOGGER.fine("Virtual threads are not supported: {0}", e.toString());
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    /**
+     * @return true if current JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @param name prefix of the names of the threads
+     * @return executor which runs each task in a new virtual thread
+     * @throws UnsupportedOperationException if virtual threads are not supported
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        if (!isSupported())
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        try {
+            var builder = NAME.invoke(OF_VIRTUAL.invoke(), name + "-", 0L);
+            var threadFactory = (ThreadFactory) FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(threadFactory);
+        } catch (Throwable e) {
+            throw new RuntimeException("Could not create virtual threads executor", e);
+        }
+    }
+}
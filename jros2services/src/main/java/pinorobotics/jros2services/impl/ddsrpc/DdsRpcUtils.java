@@ -21,9 +21,7 @@ import id.jros2client.impl.rmw.DdsQosMapper;
 import id.jros2client.qos.SubscriberQos;
 import id.xfunction.Preconditions;
 import id.xfunction.logging.XLogger;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 import pinorobotics.rtpstalk.messages.RtpsTalkDataMessage;
 import pinorobotics.rtpstalk.messages.UserParameterId;
@@ -40,6 +38,31 @@ public class DdsRpcUtils {
     public static final SubscriberQosPolicy DEFAULT_SUBSCRIBER_QOS =
             new DdsQosMapper().asDds(SubscriberQos.DEFAULT_SUBSCRIBER_QOS);
 
+    /** Parameter ids boxed once so that lookups into inline QoS do not allocate */
+    public static final Short FASTDDS_SAMPLE_IDENTITY_KEY =
+            UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY;
+
+    public static final Short RELATED_SAMPLE_IDENTITY_KEY =
+            UserParameterId.PID_RELATED_SAMPLE_IDENTITY;
+
+    /**
+     * Check if message has identity which belongs to some other writer.
+     *
+     * <p>Writer GUID is compared in place, without any allocations, so it can be used to drop
+     * messages early. Messages without identity are not considered foreign.
+     */
+    public boolean isForeign(RtpsTalkDataMessage message, byte[] writerGuid) {
+        var userInlineQos = message.userInlineQos();
+        if (userInlineQos.isEmpty()) return false;
+        var params = userInlineQos.get().getParameters();
+        var identity = params.get(RELATED_SAMPLE_IDENTITY_KEY);
+        if (identity == null) identity = params.get(FASTDDS_SAMPLE_IDENTITY_KEY);
+        if (identity == null || identity.length < SampleIdentity.GUID_SIZE) return false;
+        if (writerGuid == null) return true;
+        return !Arrays.equals(
+                identity, 0, SampleIdentity.GUID_SIZE, writerGuid, 0, SampleIdentity.GUID_SIZE);
+    }
+
     public Optional<Long> findRequestId(RtpsTalkDataMessage message) {
         var fastDdsIdentity = findRequestId(message, UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY);
         var relatedIdentity = findRequestId(message, UserParameterId.PID_RELATED_SAMPLE_IDENTITY);
@@ -65,12 +88,11 @@ public class DdsRpcUtils {
             return Optional.empty();
         }
         var identityBody = params.get(parameterId);
-        var identity = SampleIdentity.valueOf(identityBody);
-        return Optional.of(identity.seqNum());
+        return Optional.of(SampleIdentity.readSeqNum(identityBody));
     }
 
-    /** Identity with list of parameters assigned to it */
-    public record IdentityResult(byte[] identity, List<Short> parameterIds) {}
+    /** Identity with the parameters which carry it */
+    public record IdentityResult(byte[] identity, IdentityLayout layout) {}
 
     public Optional<IdentityResult> findIdentity(RtpsTalkDataMessage message) {
         var userInlineQos = message.userInlineQos().orElse(null);
@@ -79,19 +101,17 @@ public class DdsRpcUtils {
             return Optional.empty();
         }
         var params = userInlineQos.getParameters();
-        var parameterIds = new ArrayList<Short>();
-        var fastDdsIdentity = params.get(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY);
-        if (fastDdsIdentity != null) parameterIds.add(UserParameterId.PID_FASTDDS_SAMPLE_IDENTITY);
-        var relatedIdentity = params.get(UserParameterId.PID_RELATED_SAMPLE_IDENTITY);
-        if (relatedIdentity != null) parameterIds.add(UserParameterId.PID_RELATED_SAMPLE_IDENTITY);
+        var fastDdsIdentity = params.get(FASTDDS_SAMPLE_IDENTITY_KEY);
+        var relatedIdentity = params.get(RELATED_SAMPLE_IDENTITY_KEY);
         if (fastDdsIdentity == null && relatedIdentity == null) {
             LOGGER.warning("No request id found: RTPS message without identity");
             return Optional.empty();
         }
-        if (fastDdsIdentity != null && relatedIdentity != null)
-            Preconditions.isTrue(Arrays.equals(fastDdsIdentity, relatedIdentity), MISMATCH_ERROR);
-        return Optional.ofNullable(fastDdsIdentity)
-                .or(() -> Optional.of(relatedIdentity))
-                .map(identity -> new IdentityResult(identity, parameterIds));
+        if (relatedIdentity == null)
+            return Optional.of(new IdentityResult(fastDdsIdentity, IdentityLayout.FASTDDS));
+        if (fastDdsIdentity == null)
+            return Optional.of(new IdentityResult(relatedIdentity, IdentityLayout.RELATED));
+        Preconditions.isTrue(Arrays.equals(fastDdsIdentity, relatedIdentity), MISMATCH_ERROR);
+        return Optional.of(new IdentityResult(fastDdsIdentity, IdentityLayout.BOTH));
     }
 }
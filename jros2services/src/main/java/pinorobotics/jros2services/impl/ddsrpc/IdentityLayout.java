@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl.ddsrpc;
+
+import java.util.Map;
+import pinorobotics.rtpstalk.messages.Parameters;
+
+/**
+ * Inline QoS parameters which carry sample identity of the request. Replies carry its identity in
+ * the same parameters, so that clients of any DDS vendor can match them.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public enum IdentityLayout {
+    /** FastDDS legacy sample identity only */
+    FASTDDS,
+
+    /** DDS-RPC related sample identity only */
+    RELATED,
+
+    /** Both FastDDS legacy and DDS-RPC related sample identity */
+    BOTH;
+
+    /**
+     * @return inline QoS parameters which all point to the given identity
+     */
+    public Map<Short, byte[]> toParameters(byte[] identity) {
+        return switch (this) {
+            case FASTDDS -> Map.of(DdsRpcUtils.FASTDDS_SAMPLE_IDENTITY_KEY, identity);
+            case RELATED -> Map.of(DdsRpcUtils.RELATED_SAMPLE_IDENTITY_KEY, identity);
+            case BOTH ->
+                    Map.of(
+                            DdsRpcUtils.FASTDDS_SAMPLE_IDENTITY_KEY,
+                            identity,
+                            DdsRpcUtils.RELATED_SAMPLE_IDENTITY_KEY,
+                            identity);
+        };
+    }
+
+    /**
+     * @return inline QoS of the message with given identity
+     */
+    public Parameters newParameters(byte[] identity) {
+        return new Parameters(toParameters(identity));
+    }
+}
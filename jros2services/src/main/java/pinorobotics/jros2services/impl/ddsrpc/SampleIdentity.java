@@ -17,30 +17,52 @@
  */
 package pinorobotics.jros2services.impl.ddsrpc;
 
-import java.nio.ByteBuffer;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 
 /**
+ * Identity of the DDS sample: GUID of its writer and its sequence number.
+ *
+ * <p>Sequence number is encoded as DDS SequenceNumber_t: high signed 32 bits followed by low
+ * unsigned 32 bits, both in little endian.
+ *
  * @author lambdaprime intid@protonmail.com
  */
 public record SampleIdentity(byte[] writerGuid, long seqNum) {
 
+    /** Size of the writer GUID in bytes */
+    public static final int GUID_SIZE = 16;
+
+    /** Size of the encoded identity in bytes */
+    public static final int SIZE = GUID_SIZE + 8;
+
+    private static final VarHandle INT_HANDLE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
     public byte[] toByteArray() {
-        var buf = ByteBuffer.allocate(24);
-        buf.put(writerGuid);
-        var hi = (int) (seqNum >> 31);
-        var lo = (int) ((-1L >> 31) & seqNum);
-        buf.putInt(Integer.reverseBytes(hi));
-        buf.putInt(Integer.reverseBytes(lo));
-        return buf.array();
+        var identity = new byte[SIZE];
+        System.arraycopy(writerGuid, 0, identity, 0, GUID_SIZE);
+        writeSeqNum(identity, seqNum);
+        return identity;
     }
 
     public static SampleIdentity valueOf(byte[] array) {
-        var buf = ByteBuffer.wrap(array);
-        var writerGuid = new byte[16];
-        buf.get(writerGuid);
-        long hi = Integer.reverseBytes(buf.getInt());
-        long lo = Integer.reverseBytes(buf.getInt());
-        var seqNum = ((hi << 31) | lo);
-        return new SampleIdentity(writerGuid, seqNum);
+        var writerGuid = new byte[GUID_SIZE];
+        System.arraycopy(array, 0, writerGuid, 0, GUID_SIZE);
+        return new SampleIdentity(writerGuid, readSeqNum(array));
+    }
+
+    /** Write sequence number into the encoded identity in place */
+    public static void writeSeqNum(byte[] identity, long seqNum) {
+        INT_HANDLE.set(identity, GUID_SIZE, (int) (seqNum >>> 32));
+        INT_HANDLE.set(identity, GUID_SIZE + 4, (int) seqNum);
+    }
+
+    /** Read sequence number from the encoded identity without decoding the rest of it */
+    public static long readSeqNum(byte[] identity) {
+        long hi = (int) INT_HANDLE.get(identity, GUID_SIZE);
+        long lo = Integer.toUnsignedLong((int) INT_HANDLE.get(identity, GUID_SIZE + 4));
+        return (hi << 32) | lo;
     }
 }
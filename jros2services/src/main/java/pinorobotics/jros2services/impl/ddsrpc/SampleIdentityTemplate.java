@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.impl.ddsrpc;
+
+import id.xfunction.Preconditions;
+import pinorobotics.rtpstalk.messages.Parameters;
+
+/**
+ * Sample identity with the writer GUID encoded once, so that only the sequence number is written
+ * for each new sample.
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public class SampleIdentityTemplate {
+
+    private final byte[] template = new byte[SampleIdentity.SIZE];
+
+    public SampleIdentityTemplate(byte[] writerGuid) {
+        Preconditions.equals(SampleIdentity.GUID_SIZE, writerGuid.length, "Wrong GUID size");
+        System.arraycopy(writerGuid, 0, template, 0, SampleIdentity.GUID_SIZE);
+    }
+
+    /**
+     * Encoded identity is referenced by the RTPS message until it is written by the RTPS writer, so
+     * it cannot be reused and new array is returned for each call.
+     *
+     * @return encoded identity of the sample with given sequence number
+     */
+    public byte[] newIdentity(long seqNum) {
+        var identity = template.clone();
+        SampleIdentity.writeSeqNum(identity, seqNum);
+        return identity;
+    }
+
+    /**
+     * @return inline QoS of the sample with given sequence number in {@link IdentityLayout#FASTDDS}
+     *     layout
+     */
+    public Parameters newParameters(long seqNum) {
+        return IdentityLayout.FASTDDS.newParameters(newIdentity(seqNum));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.metrics;
+
+import pinorobotics.jros2services.JRos2ServicesConfiguration;
+
+/**
+ * Metrics emitted by the pool of serialization buffers (see {@link
+ * JRos2ServicesConfiguration#maxPooledBytes()})
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public interface BufferPoolMetrics {
+    String POOLED_BYTES_METRIC = "service_buffer_pool_pooled_bytes";
+    String POOLED_BYTES_METRIC_DESCRIPTION =
+            "Number of bytes kept by the pool in the buffers which are available for reuse";
+
+    String BUFFERS_IN_USE_METRIC = "service_buffer_pool_buffers_in_use";
+    String BUFFERS_IN_USE_METRIC_DESCRIPTION =
+            "Number of buffers which were taken from the pool and not yet returned";
+
+    String BUFFERS_ALLOCATED_COUNT_METRIC = "service_buffer_pool_allocated_buffers_total";
+    String BUFFERS_ALLOCATED_COUNT_METRIC_DESCRIPTION =
+            "Number of buffers which were allocated because pool had none available";
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.metrics;
+
+import pinorobotics.jrosservices.metrics.JRosServiceClientMetrics;
+
+/**
+ * Metrics emitted by ROS2 Service clients in addition to {@link JRosServiceClientMetrics}
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public interface JRos2ServiceClientMetrics {
+    String REQUESTS_TIMEOUT_COUNT_METRIC = "service_timeout_requests_total";
+    String REQUESTS_TIMEOUT_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which did not receive response from ROS services in time";
+
+    String RESPONSES_IGNORED_COUNT_METRIC = "service_ignored_responses_total";
+    String RESPONSES_IGNORED_COUNT_METRIC_DESCRIPTION =
+            "Number of received responses which were addressed to other clients";
+
+    String REQUESTS_IN_FLIGHT_METRIC = "service_in_flight_requests";
+    String REQUESTS_IN_FLIGHT_METRIC_DESCRIPTION =
+            "Number of requests which were sent to ROS services and are waiting for the response";
+
+    String REQUESTS_REJECTED_COUNT_METRIC = "service_rejected_requests_total";
+    String REQUESTS_REJECTED_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were completed exceptionally because of the in flight limit";
+
+    String RESPONSE_CACHE_HITS_COUNT_METRIC = "service_response_cache_hits_total";
+    String RESPONSE_CACHE_HITS_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were completed with the response from the client cache";
+
+    String RESPONSE_CACHE_MISSES_COUNT_METRIC = "service_response_cache_misses_total";
+    String RESPONSE_CACHE_MISSES_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were sent to ROS services because client cache had no"
+                    + " response for them";
+
+    String REQUESTS_COALESCED_COUNT_METRIC = "service_coalesced_requests_total";
+    String REQUESTS_COALESCED_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were not sent because identical request was already in"
+                    + " flight";
+
+    String REQUESTS_LOCAL_COUNT_METRIC = "service_local_requests_total";
+    String REQUESTS_LOCAL_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were passed to the service in the same JVM without RTPS";
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 jrosservices project
+ * 
+ * Website: https://github.com/pinorobotics/jros2services
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pinorobotics.jros2services.metrics;
+
+import pinorobotics.jros2services.JRos2ServiceConfiguration;
+import pinorobotics.jrosservices.metrics.JRosServiceMetrics;
+
+/**
+ * Metrics emitted by ROS2 Services in addition to {@link JRosServiceMetrics}.
+ *
+ * <p>Handler queue metrics are emitted only when service has limits on the requests (see {@link
+ * JRos2ServiceConfiguration})
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+public interface JRos2ServiceMetrics {
+    String REQUESTS_QUEUED_METRIC = "service_handler_queued_requests";
+    String REQUESTS_QUEUED_METRIC_DESCRIPTION =
+            "Number of requests which wait in the queue for the service handler";
+
+    String REQUESTS_REJECTED_COUNT_METRIC = "service_handler_rejected_requests_total";
+    String REQUESTS_REJECTED_COUNT_METRIC_DESCRIPTION =
+            "Number of new requests which were shed because the handler queue was full";
+
+    String REQUESTS_DROPPED_COUNT_METRIC = "service_handler_dropped_requests_total";
+    String REQUESTS_DROPPED_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were removed from the handler queue to free the space for"
+                    + " the new ones";
+
+    String REQUESTS_EXPIRED_COUNT_METRIC = "service_handler_expired_requests_total";
+    String REQUESTS_EXPIRED_COUNT_METRIC_DESCRIPTION =
+            "Number of requests which were shed because they waited in the handler queue longer"
+                    + " than allowed";
+
+    String CLIENTS_QUEUED_METRIC = "service_handler_queued_clients";
+    String CLIENTS_QUEUED_METRIC_DESCRIPTION =
+            "Number of clients with requests which wait in the queue for the service handler,"
+                    + " emitted only when fair scheduling is enabled";
+
+    String CLIENT_REQUESTS_QUEUED_MAX_METRIC = "service_handler_client_queued_requests_max";
+    String CLIENT_REQUESTS_QUEUED_MAX_METRIC_DESCRIPTION =
+            "Largest number of requests of a single client which wait in the queue for the"
+                    + " service handler, emitted only when fair scheduling is enabled";
+
+    String LANE_REQUESTS_QUEUED_METRIC = "service_handler_lane_queued_requests";
+    String LANE_REQUESTS_QUEUED_METRIC_DESCRIPTION =
+            "Number of requests which wait in the lane of their priority (attribute \"priority\")"
+                    + " for the handler capacity shared between the services, emitted only when"
+                    + " factory limits it";
+
+    String BATCH_SIZE_METRIC = "service_handler_batch_size";
+    String BATCH_SIZE_METRIC_DESCRIPTION =
+            "Number of requests in the batches passed to the batch service handler";
+
+    String BATCH_WAIT_TIME_METRIC = "service_handler_batch_wait_time_ms";
+    String BATCH_WAIT_TIME_METRIC_DESCRIPTION =
+            "Time the first request of the batch waited for the batch to be complete";
+
+    String ASYNC_REQUESTS_PENDING_METRIC = "service_handler_async_pending_requests";
+    String ASYNC_REQUESTS_PENDING_METRIC_DESCRIPTION =
+            "Number of requests which were accepted by the asynchronous service handler and are"
+                    + " not yet complete";
+
+    String REQUESTS_DUPLICATE_COUNT_METRIC = "service_duplicate_requests_total";
+    String REQUESTS_DUPLICATE_COUNT_METRIC_DESCRIPTION =
+            "Number of copies of the running requests which were dropped by the deduplication";
+
+    String REPLIES_REPLAYED_COUNT_METRIC = "service_replayed_replies_total";
+    String REPLIES_REPLAYED_COUNT_METRIC_DESCRIPTION =
+            "Number of copies of the completed requests which received the remembered reply"
+                    + " instead of being executed again";
+
+    String RESPONSES_DROPPED_COUNT_METRIC = "service_dropped_responses_total";
+    String RESPONSES_DROPPED_COUNT_METRIC_DESCRIPTION =
+            "Number of responses which were dropped because the responses buffer stayed full"
+                    + " longer than the offer timeout";
+
+    String REORDER_BUFFER_REPLIES_METRIC = "service_reorder_buffer_replies";
+    String REORDER_BUFFER_REPLIES_METRIC_DESCRIPTION =
+            "Number of completed replies which wait in the reorder buffers for the replies to the"
+                    + " earlier requests of the same clients";
+
+    String REORDER_WAIT_TIME_METRIC = "service_reorder_wait_time_ms";
+    String REORDER_WAIT_TIME_METRIC_DESCRIPTION =
+            "Time completed replies waited in the reorder buffers (head-of-line blocking)";
+
+    String REORDER_SKIPPED_COUNT_METRIC = "service_reorder_skipped_requests_total";
+    String REORDER_SKIPPED_COUNT_METRIC_DESCRIPTION =
+            "Number of slow requests which replies to the later requests stopped waiting for,"
+                    + " because reorder buffer of their client was full";
+}
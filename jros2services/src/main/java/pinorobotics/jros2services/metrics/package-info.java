@@ -0,0 +1,6 @@
+/**
+ * Metrics of <b>jros2services</b> module
+ *
+ * @author lambdaprime intid@protonmail.com
+ */
+package pinorobotics.jros2services.metrics;